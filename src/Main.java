@@ -1,11 +1,11 @@
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.StringReader;
+import java.util.concurrent.ForkJoinPool;
 
 import controller.GUIController;
 import controller.IImageProcessorController;
 import controller.ImageProcessorController;
-import model.IImageProcessorModel;
 import model.ImageProcessorModel;
 import view.GUIView;
 import view.IImageProcessorView;
@@ -43,13 +43,15 @@ public class Main {
         a = new InputStreamReader(System.in);
       }
 
-      IImageProcessorModel m = new ImageProcessorModel(10, 10);
+      ImageProcessorModel m = new ImageProcessorModel(10, 10);
+      m.setRenderPool(ForkJoinPool.commonPool());
       IImageProcessorView v = new ImageProcessorView(m);
       Readable r = new InputStreamReader(System.in);
       IImageProcessorController c = new ImageProcessorController(m, v, r);
       c.startProcessor();
     } else {
-      IImageProcessorModel model = new ImageProcessorModel(10, 10);
+      ImageProcessorModel model = new ImageProcessorModel(10, 10);
+      model.setRenderPool(ForkJoinPool.commonPool());
       GUIView sg = new GUIView();
       GUIController control = new GUIController(sg, model);
     }
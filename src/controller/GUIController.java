@@ -13,11 +13,11 @@ import java.util.Scanner;
 
 import javax.imageio.ImageIO;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import model.IImageProcessorModel;
 import model.ILayer;
 import model.IPixel;
-import model.ImageProcessorModel;
 import model.Layer;
 import model.PPMImage;
 import model.Pixel;
@@ -45,6 +45,8 @@ public class GUIController implements Features {
 
   private GUIView view;
   private IImageProcessorModel model;
+  private BufferedImage shown;
+  private boolean refreshing;
 
 
   /**
@@ -155,7 +157,8 @@ public class GUIController implements Features {
       orderLayers.add(hold);
       nameLayers.put(name, hold);
     }
-    this.model = new ImageProcessorModel(height, width, nameLayers, orderLayers);
+    //loaded into the same model, so it keeps rendering on its pool
+    this.model.loadProject(height, width, nameLayers, orderLayers);
   }
 
   /**
@@ -220,8 +223,8 @@ public class GUIController implements Features {
   public void blueFilter(String curLayer) {
     try {
       model.setFilter(curLayer, new BlueFilter());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -235,8 +238,8 @@ public class GUIController implements Features {
   public void brightenIntensity(String curLayer) {
     try {
       model.setFilter(curLayer, new BrightenIntensity());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -250,8 +253,8 @@ public class GUIController implements Features {
   public void brightenLuma(String curLayer) {
     try {
       model.setFilter(curLayer, new BrightenLuma());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -265,8 +268,8 @@ public class GUIController implements Features {
   public void brightenValue(String curLayer) {
     try {
       model.setFilter(curLayer, new BrightenValue());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -280,8 +283,8 @@ public class GUIController implements Features {
   public void darkenIntensity(String curLayer) {
     try {
       model.setFilter(curLayer, new DarkenIntensity());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -295,8 +298,8 @@ public class GUIController implements Features {
   public void darkenLuma(String curLayer) {
     try {
       model.setFilter(curLayer, new DarkenLuma());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -310,8 +313,8 @@ public class GUIController implements Features {
   public void darkenValue(String curLayer) {
     try {
       model.setFilter(curLayer, new DarkenValue());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -325,8 +328,8 @@ public class GUIController implements Features {
   public void greenFilter(String curLayer) {
     try {
       model.setFilter(curLayer, new GreenFilter());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -340,8 +343,8 @@ public class GUIController implements Features {
   public void normal(String curLayer) {
     try {
       model.setFilter(curLayer, new Normal());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -355,8 +358,8 @@ public class GUIController implements Features {
   public void redFilter(String curLayer) {
     try {
       model.setFilter(curLayer, new RedFilter());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -370,8 +373,8 @@ public class GUIController implements Features {
   public void screen(String curLayer) {
     try {
       model.setFilter(curLayer, new Screen());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -385,8 +388,8 @@ public class GUIController implements Features {
   public void multiply(String curLayer) {
     try {
       model.setFilter(curLayer, new Multiply());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -400,8 +403,8 @@ public class GUIController implements Features {
   public void difference(String curLayer) {
     try {
       model.setFilter(curLayer, new Difference());
-      view.addImageToGUI(model.compressImage());
-    } catch (Exception e) {
+      this.showComposite();
+    } catch (IllegalArgumentException e) {
       System.out.println("Please choose a layer.");
     }
   }
@@ -469,6 +472,40 @@ public class GUIController implements Features {
     model.addImage(0, 0, new PPMImage(pixels, height, width), model.getLayer(curLayer));
   }
 
+  /**
+   * This method asks for the composite image of the project to be shown in the view. The image
+   * is rendered once the events already queued have been handled, so a burst of changes is
+   * rendered once rather than once per change.
+   */
+  private void showComposite() {
+    if (!this.refreshing) {
+      this.refreshing = true;
+      SwingUtilities.invokeLater(this::refresh);
+    }
+  }
+
+  /**
+   * This method shows the composite image of the project in the view. The image shown before is
+   * no longer displayed, so it is given back to the model to be reused by the next render. If a
+   * filter fails on the project, the image shown before stays shown; any other failure to render
+   * is left to propagate.
+   */
+  private void refresh() {
+    this.refreshing = false;
+    BufferedImage image;
+    try {
+      image = model.compressImage();
+    } catch (ArithmeticException e) {
+      //filters are applied as the project renders, and some fail on some colors, such as the
+      //luma filters on black
+      this.tryRenderMessage("The filter could not be applied to the layer.");
+      return;
+    }
+    view.addImageToGUI(image);
+    model.recycleImage(this.shown);
+    this.shown = image;
+  }
+
   /**
    * This method renders a message using the view, as a popup.
    *
@@ -514,7 +551,7 @@ public class GUIController implements Features {
       }
     }
     model.addImage(0, 0, new PPMImage(pixels, height, width), model.getLayer(curLayer));
-    view.addImageToGUI(model.compressImage());
+    this.showComposite();
     tryRenderMessage("Image loaded successfully");
   }
 
@@ -527,7 +564,7 @@ public class GUIController implements Features {
   @Override
   public void newProject(int height, int width, int maxValue) {
     model.newProject(height, width, maxValue);
-    view.addImageToGUI(model.compressImage());
+    this.showComposite();
   }
 
 
@@ -552,7 +589,8 @@ public class GUIController implements Features {
       } catch (IOException e) {
         tryRenderMessage("File " + f.getAbsolutePath() + " not found! / INVALID");
       }
+      model.recycleImage(img);
     }
   }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -18,7 +18,6 @@ import model.IImage;
 import model.IImageProcessorModel;
 import model.ILayer;
 import model.IPixel;
-import model.ImageProcessorModel;
 import model.Layer;
 import model.PPMImage;
 import model.Pixel;
@@ -261,7 +260,8 @@ public class ImageProcessorController implements IImageProcessorController {
       orderLayers.add(hold);
       nameLayers.put(name, hold);
     }
-    this.model = new ImageProcessorModel(height, width, nameLayers, orderLayers);
+    //loaded into the same model, so it keeps rendering on its pool
+    this.model.loadProject(height, width, nameLayers, orderLayers);
     this.view = new ImageProcessorView(this.model);
   }
 
@@ -446,6 +446,7 @@ public class ImageProcessorController implements IImageProcessorController {
       } catch (IOException e) {
         tryRender("File " + filePath + " not found! / INVALID");
       }
+      model.recycleImage(img);
 
     }
   }
@@ -2,11 +2,15 @@ package model;
 
 /**
  * Represents an abstract class for Image types.
+ * The pixels of an image are packed into ARGB values the first time a row is read, and every
+ * later read, by any number of layers, shares that one buffer. Images are treated as unchanging
+ * once they have been read.
  */
 public abstract class AImage implements IImage {
   IPixel[][] content;
   private int height;
   private int width;
+  private volatile int[] packed;
 
   /**
    * Represents a constructor for all Images.
@@ -70,4 +74,50 @@ public abstract class AImage implements IImage {
   public int getWidth() {
     return this.width;
   }
+
+  /**
+   * Copies a span of one row of the Image into the given array as packed ARGB values.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  @Override
+  public void readRow(int row, int col, int length, int[] dst, int offset) {
+    System.arraycopy(this.packed(), row * this.width + col, dst, offset, length);
+  }
+
+  /**
+   * Returns one pixel of the Image as a packed ARGB value.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return int packed ARGB value.
+   */
+  @Override
+  public int getArgb(int row, int col) {
+    return this.packed()[row * this.width + col];
+  }
+
+  /**
+   * Returns the pixels of the Image as packed ARGB values in row-major order, packing them the
+   * first time. Threads racing to pack them all produce the same values, so either result is kept.
+   *
+   * @return int[] packed pixels.
+   */
+  private int[] packed() {
+    int[] values = this.packed;
+    if (values == null) {
+      values = new int[this.height * this.width];
+      for (int i = 0; i < this.height; i++) {
+        for (int j = 0; j < this.width; j++) {
+          values[i * this.width + j] = PackedPixel.pack(this.content[i][j]);
+        }
+      }
+      this.packed = values;
+    }
+    return values;
+  }
 }
@@ -0,0 +1,855 @@
+package model;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import model.filters.IBlendFilter;
+import model.filters.IFilter;
+import model.filters.IPixelFilter;
+import model.filters.IPlanarFilter;
+import model.filters.LookupTables;
+
+/**
+ * Represents the compositor for the layers of a project. It renders the layer stack into a
+ * caller supplied, row-major buffer of packed ARGB values, caching each layer's filtered result
+ * so that later renders only redo what changed.
+ */
+public class Compositor {
+  private static final int TILE = 64;
+  //per layer and tile flags: whether the cached result is known to be opaque, and whether changes
+  //to the layer were skipped because the tile was covered
+  private static final byte KNOWN = 1;
+  private static final byte OPAQUE = 2;
+  private static final byte DEFERRED = 4;
+  private static final int BLANK = PackedPixel.pack(255, 255, 255, 0);
+
+  private ForkJoinPool pool;
+  private LookupTables tables;
+  private IPixelFilter[] kernels = new IPixelFilter[0];
+  //buffers for bands and concurrently rendered layers, reused from render to render
+  private final Queue<Scratch> scratches = new ConcurrentLinkedQueue<Scratch>();
+  private int[] composite;
+  private int height;
+  private int width;
+  private int columns;
+  private List<ILayer> lastLayers = new ArrayList<ILayer>();
+  private long[] lastVersions = new long[0];
+  private Map<ILayer, Cache> caches = new IdentityHashMap<ILayer, Cache>();
+
+  /**
+   * Represents a constructor for a compositor that renders on the calling thread.
+   */
+  public Compositor() {
+    this(null);
+  }
+
+  /**
+   * Represents a constructor for a compositor that renders bands of rows on the given pool.
+   *
+   * @param pool the pool to render on, or null to render on the calling thread.
+   */
+  public Compositor(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Sets the pool the compositor renders on.
+   *
+   * @param pool the pool to render on, or null to render on the calling thread.
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Sets the lookup tables planar filters are compiled into before they are applied. The exact
+   * tables give the same results as the filters; the grid tables only approximate them, so when
+   * the tables change every layer is rendered again.
+   *
+   * @param tables the lookup tables to compile filters into, or null to apply them as they are.
+   */
+  public void setLookupTables(LookupTables tables) {
+    if (tables != this.tables) {
+      this.caches = new IdentityHashMap<ILayer, Cache>();
+      this.composite = null;
+    }
+    this.tables = tables;
+  }
+
+  /**
+   * Renders the given layers, bottom to top, into the destination buffer. The composite of the
+   * previous render is kept, so only the union of the regions that changed since is filtered and
+   * recomposited again. Given a pool, that work is split into bands of tiles rendered in
+   * parallel, and every pixel is computed the same way as on the calling thread.
+   *
+   * @param layers the layers of the project, in the order they are applied.
+   * @param height int height of the project.
+   * @param width  int width of the project.
+   * @param dst    the buffer to render into, at least height * width long.
+   * @throws IllegalArgumentException if the buffer is too small for the project.
+   */
+  public void render(List<ILayer> layers, int height, int width, int[] dst)
+          throws IllegalArgumentException {
+    if (dst.length < height * width) {
+      throw new IllegalArgumentException("Buffer is too small for the project");
+    }
+    try {
+      this.update(layers, height, width);
+    } catch (RuntimeException e) {
+      //the dirty regions taken from the layers are lost, so start from scratch next time
+      for (ILayer layer : layers) {
+        layer.setRendered(null);
+      }
+      for (ILayer layer : this.caches.keySet()) {
+        layer.setRendered(null);
+      }
+      this.caches = new IdentityHashMap<ILayer, Cache>();
+      this.composite = null;
+      throw e;
+    }
+    System.arraycopy(this.composite, 0, dst, 0, height * width);
+  }
+
+  /**
+   * Brings the cached layers and the composite up to date with the given layers. A layer that is
+   * one color throughout is given no cache; its filter is applied to a single pixel, which is
+   * filled in wherever the layer shows. Other layers only cache their content bounds: the filters
+   * of cached layers only look at the pixel they change, so every blank pixel outside the bounds
+   * filters to the same value, which is filled in like the color of a constant layer. Layers with
+   * a blend filter are not cached either, as they are blended with the composite beneath them
+   * while merging.
+   *
+   * @param order  the layers of the project.
+   * @param height int height of the project.
+   * @param width  int width of the project.
+   */
+  private void update(List<ILayer> order, int height, int width) {
+    //read the order once, rather than looking up every position in it as the render goes
+    List<ILayer> layers = new ArrayList<ILayer>(order);
+    Rectangle canvas = new Rectangle(0, 0, width, height);
+    boolean structureChanged = this.composite == null || this.height != height
+            || this.width != width || !this.lastLayers.equals(layers);
+    if (structureChanged) {
+      this.composite = new int[height * width];
+      this.height = height;
+      this.width = width;
+      this.columns = (width + TILE - 1) / TILE;
+    }
+    int tileRows = (height + TILE - 1) / TILE;
+    //compile filters into lookup tables here, so no band waits on a table being built
+    this.kernels = new IPixelFilter[layers.size()];
+    for (int x = 0; x < layers.size(); x++) {
+      this.kernels[x] = this.kernel(layers.get(x).getFilter());
+    }
+
+    Rectangle[] changed = new Rectangle[layers.size()];
+    byte[][] states = new byte[layers.size()][];
+    ICanvas[] targets = new ICanvas[layers.size()];
+    IBlendFilter[] blends = new IBlendFilter[layers.size()];
+    int[] fills = new int[layers.size()];
+    Rectangle[] bounds = new Rectangle[layers.size()];
+    for (int x = 0; x < layers.size(); x++) {
+      ILayer layer = layers.get(x);
+      changed[x] = layer.takeDirty();
+      bounds[x] = layer.getContentBounds().intersection(canvas);
+      if (!structureChanged && changed[x].isEmpty()
+              && layer.getVersion() != this.lastVersions[x]) {
+        //the dirty region was taken by another compositor, so assume the whole layer changed
+        changed[x] = canvas;
+      }
+      if (layer.getFilter() instanceof IBlendFilter) {
+        //blended with the composite beneath while merging, so there is nothing to cache
+        blends[x] = (IBlendFilter) layer.getFilter();
+        continue;
+      }
+      if (layer.isConstant()) {
+        if (height > 0 && width > 0) {
+          fills[x] = this.filterPixel(layers, x, 0, 0);
+        }
+        continue;
+      }
+      fills[x] = this.filterBlank(layers, x, bounds[x]);
+      if (bounds[x].isEmpty()) {
+        //every pixel is blank, so the layer is filled in like one that is one color throughout
+        continue;
+      }
+      Cache cache = this.caches.get(layer);
+      targets[x] = layer.getRendered();
+      if (targets[x] == null || cache == null || cache.states.length != tileRows * this.columns
+              || cache.blank != fills[x]) {
+        //without the tile states it is unknown which tiles of the cache are stale
+        changed[x] = canvas;
+        states[x] = new byte[tileRows * this.columns];
+        targets[x] = null;
+      } else if (!cache.bounds.equals(bounds[x])) {
+        //a new cache is needed; outside of both bounds the layer stays blank
+        changed[x] = union(changed[x], union(cache.bounds, bounds[x]));
+        states[x] = cache.states;
+        targets[x] = null;
+      } else {
+        states[x] = cache.states;
+      }
+    }
+
+    //blend layers are blended over again wherever the layers beneath them are recomposited
+    Rectangle dirty = new Rectangle();
+    for (int x = 0; x < layers.size(); x++) {
+      dirty = union(dirty, changed[x]);
+    }
+
+    Rectangle region = (structureChanged ? canvas : dirty).intersection(canvas);
+    for (int x = 0; x < layers.size(); x++) {
+      changed[x] = changed[x].intersection(canvas);
+      if (targets[x] == null && states[x] != null) {
+        //stored the way the layer's own pixels are, and filled with the filtered blank value so
+        //that the tiles of a tiled cache where the content is blank stay shared
+        targets[x] = layers.get(x).getStorage().create(bounds[x].height, bounds[x].width,
+                fills[x]);
+      }
+    }
+    Frame frame = new Frame(layers, changed, targets, blends, fills, states, bounds, region,
+            this.pool != null);
+    if (this.pool == null) {
+      this.renderTiles(frame, 0, tileRows);
+    } else {
+      int grain = Math.max(1, tileRows / (this.pool.getParallelism() * 4));
+      this.pool.invoke(new Band(frame, 0, tileRows, grain));
+    }
+    Map<ILayer, Cache> current = new IdentityHashMap<ILayer, Cache>();
+    for (int x = 0; x < layers.size(); x++) {
+      //layers that are one color throughout drop their cache
+      layers.get(x).setRendered(targets[x]);
+      if (targets[x] != null) {
+        current.put(layers.get(x), new Cache(states[x], bounds[x], fills[x]));
+      }
+    }
+    for (Map.Entry<ILayer, Cache> entry : this.caches.entrySet()) {
+      //a removed layer takes its deferred changes with it, so it starts over if it comes back
+      if (!current.containsKey(entry.getKey()) && hasDeferred(entry.getValue().states)) {
+        entry.getKey().setRendered(null);
+      }
+    }
+    this.caches = current;
+
+    this.lastLayers = layers;
+    this.lastVersions = new long[layers.size()];
+    for (int x = 0; x < layers.size(); x++) {
+      this.lastVersions[x] = layers.get(x).getVersion();
+    }
+  }
+
+  /**
+   * Renders the tiles in a band of rows of tiles.
+   *
+   * @param frame  the render being worked on.
+   * @param top    the first row of tiles of the band.
+   * @param bottom the row of tiles after the last row of the band.
+   */
+  private void renderTiles(Frame frame, int top, int bottom) {
+    Rectangle canvas = new Rectangle(0, 0, this.width, this.height);
+    Scratch scratch = this.takeScratch();
+    try {
+      for (int row = top; row < bottom; row++) {
+        for (int col = 0; col < this.columns; col++) {
+          Rectangle tile = new Rectangle(col * TILE, row * TILE, TILE, TILE).intersection(canvas);
+          this.renderTile(frame, row * this.columns + col, tile, scratch);
+        }
+      }
+    } finally {
+      this.scratches.offer(scratch);
+    }
+  }
+
+  /**
+   * Returns buffers no band or layer is working in, reusing those of earlier work.
+   *
+   * @return Scratch the buffers, to be offered back once the work is done.
+   */
+  private Scratch takeScratch() {
+    Scratch scratch = this.scratches.poll();
+    return scratch == null ? new Scratch() : scratch;
+  }
+
+  /**
+   * Re-filters the changed parts of the layers in one tile from the top layer down, stopping once
+   * the tile is covered by opaque pixels, and recomposites the part of the tile that changed.
+   * Changes to the covered layers are deferred until the tile is uncovered. On a pool, layers with
+   * planar filters are filtered concurrently: they keep the alpha of every pixel, so whether they
+   * cover the tile is known from their source before they are filtered.
+   *
+   * @param frame   the render being worked on.
+   * @param index   the position of the tile.
+   * @param tile    the region of the tile.
+   * @param scratch the buffers of the band the tile is in.
+   */
+  private void renderTile(Frame frame, int index, Rectangle tile, Scratch scratch) {
+    int base = 0;
+    boolean covered = false;
+    List<LayerRender> batch = null;
+    for (int x = frame.layers.size() - 1; x >= 0; x--) {
+      if (frame.blends[x] != null) {
+        //a blend layer shows the layers beneath through it, however opaque it is
+        continue;
+      }
+      if (frame.targets[x] == null) {
+        //a layer that is one color throughout covers the tile if that color is opaque
+        if (!covered && (frame.fills[x] >>> 24) == 255) {
+          covered = true;
+          base = x;
+        }
+        continue;
+      }
+      byte state = frame.states[x][index];
+      Rectangle part = (state & DEFERRED) != 0 ? tile : frame.changed[x].intersection(tile);
+      if (covered) {
+        if (!part.isEmpty()) {
+          frame.states[x][index] = DEFERRED;
+        }
+        continue;
+      }
+      if (!part.isEmpty()) {
+        ILayer layer = frame.layers.get(x);
+        if (frame.concurrent && layer.getFilter() instanceof IPlanarFilter) {
+          //rendered along with the other layers of the batch once the walk is done
+          batch = batch == null ? new ArrayList<LayerRender>() : batch;
+          batch.add(new LayerRender(frame, x, part));
+          state = this.isOpaque(layer, tile, scratch) ? (byte) (KNOWN | OPAQUE) : KNOWN;
+        } else if (batch != null) {
+          batch.add(new LayerRender(frame, x, part));
+          ForkJoinTask.invokeAll(batch);
+          batch = null;
+          state = 0;
+        } else {
+          this.renderLayer(frame, x, part, scratch);
+          state = 0;
+        }
+      }
+      if ((state & KNOWN) == 0) {
+        state = this.isOpaque(frame, x, tile, scratch) ? (byte) (KNOWN | OPAQUE) : KNOWN;
+      }
+      frame.states[x][index] = state;
+      if ((state & OPAQUE) != 0) {
+        covered = true;
+        base = x;
+      }
+    }
+    if (batch != null) {
+      ForkJoinTask.invokeAll(batch);
+    }
+    Rectangle region = frame.region.intersection(tile);
+    if (!region.isEmpty()) {
+      this.merge(frame, base, region, scratch);
+    }
+  }
+
+  /**
+   * Applies the filter of a layer to the part of a region of it within the bounds of its cache,
+   * writing the result into the cache.
+   *
+   * @param frame   the render being worked on.
+   * @param index   the position of the layer to render.
+   * @param region  the region of the layer to render.
+   * @param scratch the buffers of the band the region is in.
+   */
+  private void renderLayer(Frame frame, int index, Rectangle region, Scratch scratch) {
+    Rectangle bounds = frame.bounds[index];
+    Rectangle content = region.intersection(bounds);
+    if (content.isEmpty()) {
+      return;
+    }
+    ICanvas rendered = frame.targets[index];
+    if (this.kernels[index] != null) {
+      this.applyKernel(frame.layers.get(index), this.kernels[index], content, rendered, bounds,
+              scratch);
+      return;
+    }
+    IPixel[][] pixels = this.filter(frame.layers, index, content);
+    int[] row = scratch.row;
+    for (int i = 0; i < content.height; i++) {
+      for (int j = 0; j < content.width; j++) {
+        row[j] = PackedPixel.pack(pixels[i][j]);
+      }
+      rendered.writeRow(content.y + i - bounds.y, content.x - bounds.x, content.width, row, 0);
+    }
+  }
+
+  /**
+   * Applies a filter that only looks at the pixel it changes to a region of a layer a row at a
+   * time, through its packed ARGB kernel. When the result is kept as runs, each row is read as runs
+   * and the filter is applied once per run rather than once per pixel, as every pixel of a run
+   * filters to the same value. When the result is kept as planes, a planar filter is applied to
+   * the row split into planes, so it is never packed.
+   *
+   * @param layer    the layer to render.
+   * @param filter   the kernel of the layer's filter.
+   * @param region   the region of the layer to render, within the bounds of its cache.
+   * @param rendered the cached result of the layer.
+   * @param bounds   the region of the layer the cache holds.
+   * @param scratch  the buffers of the band the region is in.
+   */
+  private void applyKernel(ILayer layer, IPixelFilter filter, Rectangle region, ICanvas rendered,
+                           Rectangle bounds, Scratch scratch) {
+    int[] row = scratch.row;
+    int col = region.x - bounds.x;
+    if (rendered instanceof RunCanvas) {
+      int[] lengths = scratch.lengths;
+      for (int i = region.y; i < region.y + region.height; i++) {
+        int runs = layer.readRuns(i, region.x, region.width, lengths, row, 0);
+        filter.applyRow(row, 0, runs);
+        ((RunCanvas) rendered).writeRuns(i - bounds.y, col, runs, lengths, row, 0);
+      }
+      return;
+    }
+    if (rendered instanceof PlanarCanvas && filter instanceof IPlanarFilter) {
+      byte[] red = scratch.red;
+      byte[] green = scratch.green;
+      byte[] blue = scratch.blue;
+      byte[] alpha = scratch.alpha;
+      for (int i = region.y; i < region.y + region.height; i++) {
+        layer.readPlanes(i, region.x, region.width, red, green, blue, alpha, 0);
+        ((IPlanarFilter) filter).applyPlanes(red, green, blue, alpha, region.width);
+        ((PlanarCanvas) rendered).writePlanes(i - bounds.y, col, region.width, red, green, blue,
+                alpha, 0);
+      }
+      return;
+    }
+    for (int i = region.y; i < region.y + region.height; i++) {
+      layer.readRow(i, region.x, region.width, row, 0);
+      filter.applyRow(row, 0, region.width);
+      rendered.writeRow(i - bounds.y, col, region.width, row, 0);
+    }
+  }
+
+  /**
+   * Returns the result of applying the filter of a layer to one of its pixels.
+   *
+   * @param layers the layers of the project.
+   * @param index  the position of the layer to filter.
+   * @param row    the row of the pixel.
+   * @param col    the column of the pixel.
+   * @return int the filtered packed ARGB value.
+   */
+  private int filterPixel(List<ILayer> layers, int index, int row, int col) {
+    if (this.kernels[index] != null) {
+      return this.kernels[index].applyArgb(layers.get(index).getArgb(row, col));
+    }
+    return PackedPixel.pack(this.filter(layers, index, new Rectangle(col, row, 1, 1))[0][0]);
+  }
+
+  /**
+   * Returns the result of applying the filter of a layer to the blank pixels outside its content
+   * bounds.
+   *
+   * @param layers the layers of the project.
+   * @param index  the position of the layer to filter.
+   * @param bounds the content bounds of the layer, within the project.
+   * @return int the filtered packed ARGB value, or 0 if the layer has no blank pixel.
+   */
+  private int filterBlank(List<ILayer> layers, int index, Rectangle bounds) {
+    if (this.kernels[index] != null) {
+      return this.kernels[index].applyArgb(BLANK);
+    }
+    //other filters are applied to one of the layer's blank pixels, if it has any
+    if (this.height == 0 || this.width == 0) {
+      return 0;
+    } else if (bounds.isEmpty() || bounds.x > 0 || bounds.y > 0) {
+      return this.filterPixel(layers, index, 0, 0);
+    } else if (bounds.width < this.width) {
+      return this.filterPixel(layers, index, 0, this.width - 1);
+    } else if (bounds.height < this.height) {
+      return this.filterPixel(layers, index, this.height - 1, 0);
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the kernel of a filter, compiled into a lookup table if there are lookup tables.
+   *
+   * @param filter the filter of a layer.
+   * @return IPixelFilter the kernel to apply, or null if the filter has no kernel.
+   */
+  private IPixelFilter kernel(IFilter filter) {
+    if (this.tables != null && filter instanceof IPlanarFilter) {
+      return this.tables.compile((IPlanarFilter) filter);
+    }
+    return filter instanceof IPixelFilter ? (IPixelFilter) filter : null;
+  }
+
+  /**
+   * Returns the result of applying the filter of a layer to a region of it.
+   *
+   * @param layers the layers of the project.
+   * @param index  the position of the layer to filter.
+   * @param region the region of the layer to filter.
+   * @return IPixel[][] the filtered pixels of the region.
+   */
+  private IPixel[][] filter(List<ILayer> layers, int index, Rectangle region) {
+    //filters are applied to a view of the region, so they only process the region; only blend
+    //filters look at other layers, and those are blended by the merge instead
+    ILayer view = new LayerRegion(layers.get(index), region);
+    return layers.get(index).getFilter().apply(Collections.singletonList(view), view);
+  }
+
+  /**
+   * Recomposites a region of the composite from the cached results of the layers, placing each
+   * layer over the ones below it a row at a time with premultiplied alpha, in integer arithmetic.
+   * Outside the bounds of its cache, a layer is the single value its blank pixels filter to, which
+   * is skipped when it is fully transparent. Blend layers are blended with the row built so far
+   * before being placed over it, so a stack of blend layers takes one pass per layer.
+   *
+   * @param frame   the render being worked on.
+   * @param base    the lowest layer to merge, as the layers below it are covered.
+   * @param region  the region to recomposite.
+   * @param scratch the buffers of the band the region is in.
+   */
+  private void merge(Frame frame, int base, Rectangle region, Scratch scratch) {
+    int[] sum = scratch.sum;
+    int[] row = scratch.row;
+    for (int i = region.y; i < region.y + region.height; i++) {
+      Arrays.fill(sum, 0, region.width, 0);
+      for (int x = base; x < frame.targets.length; x++) {
+        Rectangle bounds = frame.bounds[x];
+        int start = Math.max(region.x, bounds.x);
+        int end = Math.min(region.x + region.width, bounds.x + bounds.width);
+        if ((frame.targets[x] == null && frame.blends[x] == null) || i < bounds.y
+                || i >= bounds.y + bounds.height || start >= end) {
+          start = region.x;
+          end = region.x;
+        }
+        if (frame.blends[x] == null) {
+          //blend filters keep the blank pixels outside of the content transparent
+          over(frame.fills[x], sum, 0, start - region.x);
+          over(frame.fills[x], sum, end - region.x, region.width);
+        }
+        if (start == end) {
+          continue;
+        }
+        if (frame.blends[x] != null) {
+          frame.layers.get(x).readRow(i, start, end - start, row, 0);
+          this.blend(frame.blends[x], row, sum, start - region.x, end - start, scratch);
+        } else {
+          frame.targets[x].readRow(i - bounds.y, start - bounds.x, end - start, row, 0);
+        }
+        for (int j = start - region.x, k = 0; k < end - start; j++, k++) {
+          sum[j] = Premultiplied.over(row[k], sum[j]);
+        }
+      }
+      int offset = i * this.width + region.x;
+      for (int j = 0; j < region.width; j++) {
+        this.composite[offset + j] = Premultiplied.unpremultiply(sum[j]);
+      }
+    }
+  }
+
+  /**
+   * Places a single value over a span of a premultiplied row.
+   *
+   * @param argb the packed ARGB value, not premultiplied.
+   * @param sum  the premultiplied row.
+   * @param from the position in sum the span starts at.
+   * @param to   the position in sum after the end of the span.
+   */
+  private static void over(int argb, int[] sum, int from, int to) {
+    if ((argb >>> 24) == 255) {
+      Arrays.fill(sum, from, to, argb);
+    } else if ((argb >>> 24) != 0) {
+      for (int j = from; j < to; j++) {
+        sum[j] = Premultiplied.over(argb, sum[j]);
+      }
+    }
+  }
+
+  /**
+   * Blends, in place, a span of a row of a layer with the composite beneath it. Where the
+   * composite is translucent the layer's own color shows through in proportion, so over a fully
+   * transparent composite the layer is left as it is.
+   *
+   * @param filter  the blend filter of the layer.
+   * @param row     the source pixels of the layer, replaced by the blended pixels.
+   * @param sum     the premultiplied composite of the layers beneath.
+   * @param offset  the position in sum the span starts at.
+   * @param length  the number of pixels in the span.
+   * @param scratch the buffers of the band the span is in.
+   */
+  private void blend(IBlendFilter filter, int[] row, int[] sum, int offset, int length,
+                     Scratch scratch) {
+    int[] below = scratch.below;
+    int[] source = scratch.source;
+    for (int k = 0; k < length; k++) {
+      below[k] = Premultiplied.unpremultiply(sum[offset + k]);
+    }
+    System.arraycopy(row, 0, source, 0, length);
+    filter.blend(row, below, length);
+    for (int k = 0; k < length; k++) {
+      int alpha = below[k] >>> 24;
+      if (alpha != 255) {
+        row[k] = Premultiplied.mix(source[k], row[k], alpha);
+      }
+    }
+  }
+
+  /**
+   * Returns whether every pixel of a region of a cached layer's result is fully opaque.
+   *
+   * @param frame   the render being worked on.
+   * @param index   the position of the layer.
+   * @param region  the region to check.
+   * @param scratch the buffers of the band the region is in.
+   * @return boolean true if the region is opaque.
+   */
+  private boolean isOpaque(Frame frame, int index, Rectangle region, Scratch scratch) {
+    Rectangle bounds = frame.bounds[index];
+    //the pixels outside the bounds of the cache are all the filtered blank value
+    if (!bounds.contains(region) && (frame.fills[index] >>> 24) != 255) {
+      return false;
+    }
+    Rectangle part = region.intersection(bounds);
+    if (part.isEmpty()) {
+      return true;
+    }
+    ICanvas rendered = frame.targets[index];
+    int[] row = scratch.row;
+    for (int i = part.y - bounds.y; i < part.y + part.height - bounds.y; i++) {
+      int length = part.width;
+      if (rendered instanceof RunCanvas) {
+        length = ((RunCanvas) rendered).readRuns(i, part.x - bounds.x, part.width,
+                scratch.lengths, row, 0);
+      } else {
+        rendered.readRow(i, part.x - bounds.x, part.width, row, 0);
+      }
+      for (int j = 0; j < length; j++) {
+        if ((row[j] >>> 24) != 255) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether every source pixel of a region of a layer is fully opaque.
+   *
+   * @param layer   the layer.
+   * @param region  the region to check.
+   * @param scratch the buffers of the band the region is in.
+   * @return boolean true if the region is opaque.
+   */
+  private boolean isOpaque(ILayer layer, Rectangle region, Scratch scratch) {
+    //pixels outside the content bounds are transparent
+    if (!layer.getContentBounds().contains(region)) {
+      return false;
+    }
+    for (int i = region.y; i < region.y + region.height; i++) {
+      int runs = layer.readRuns(i, region.x, region.width, scratch.lengths, scratch.row, 0);
+      for (int j = 0; j < runs; j++) {
+        if ((scratch.row[j] >>> 24) != 255) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether any tile of a layer has deferred changes.
+   *
+   * @param states the tile states of the layer.
+   * @return boolean true if a tile has deferred changes.
+   */
+  private static boolean hasDeferred(byte[] states) {
+    for (byte state : states) {
+      if ((state & DEFERRED) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the union of two regions, where either may be empty.
+   *
+   * @param a a region.
+   * @param b a region.
+   * @return Rectangle the smallest region containing both.
+   */
+  private static Rectangle union(Rectangle a, Rectangle b) {
+    if (a.isEmpty()) {
+      return b;
+    }
+    if (b.isEmpty()) {
+      return a;
+    }
+    return a.union(b);
+  }
+
+  /**
+   * Represents what a single render works with, shared by every band of it.
+   */
+  private static class Frame {
+    private final List<ILayer> layers;
+    private final Rectangle[] changed;
+    private final ICanvas[] targets;
+    private final IBlendFilter[] blends;
+    private final int[] fills;
+    private final byte[][] states;
+    private final Rectangle[] bounds;
+    private final Rectangle region;
+    private final boolean concurrent;
+
+    /**
+     * Represents a constructor for a render.
+     *
+     * @param layers     the layers of the project.
+     * @param changed    the changed region of each layer.
+     * @param targets    the cached result of each layer, to be updated, or null for a layer that
+     *                   is one color throughout or has a blend filter.
+     * @param blends     the filter of each layer with a blend filter, or null for other layers.
+     * @param fills      the filtered color of each layer that is one color throughout, and of the
+     *                   blank pixels outside the cache of each cached layer.
+     * @param states     the tile states of each layer with a cached result, to be updated.
+     * @param bounds     the content bounds of each layer within the project, which is the region
+     *                   the cache of a cached layer holds.
+     * @param region     the region of the composite to recomposite.
+     * @param concurrent whether the render runs on a pool, so layers may be rendered concurrently.
+     */
+    Frame(List<ILayer> layers, Rectangle[] changed, ICanvas[] targets, IBlendFilter[] blends,
+          int[] fills, byte[][] states, Rectangle[] bounds, Rectangle region, boolean concurrent) {
+      this.layers = layers;
+      this.changed = changed;
+      this.targets = targets;
+      this.blends = blends;
+      this.fills = fills;
+      this.states = states;
+      this.bounds = bounds;
+      this.region = region;
+      this.concurrent = concurrent;
+    }
+  }
+
+  /**
+   * Represents a band of rows of tiles to render, split in half until it is no taller than the
+   * grain.
+   */
+  private class Band extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Frame frame;
+    private final int top;
+    private final int bottom;
+    private final int grain;
+
+    /**
+     * Represents a constructor for a band of rows of tiles.
+     *
+     * @param frame  the render being worked on.
+     * @param top    the first row of tiles of the band.
+     * @param bottom the row of tiles after the last row of the band.
+     * @param grain  the tallest band rendered without splitting.
+     */
+    Band(Frame frame, int top, int bottom, int grain) {
+      this.frame = frame;
+      this.top = top;
+      this.bottom = bottom;
+      this.grain = grain;
+    }
+
+    /**
+     * Renders the band, or splits it and renders both halves in parallel.
+     */
+    @Override
+    protected void compute() {
+      if (this.bottom - this.top <= this.grain) {
+        renderTiles(this.frame, this.top, this.bottom);
+        return;
+      }
+      int middle = (this.top + this.bottom) >>> 1;
+      invokeAll(new Band(this.frame, this.top, middle, this.grain),
+              new Band(this.frame, middle, this.bottom, this.grain));
+    }
+  }
+
+  /**
+   * Represents the rendering of a region of one layer, run alongside the other layers of a tile.
+   */
+  private class LayerRender extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Frame frame;
+    private final int index;
+    private final Rectangle region;
+
+    /**
+     * Represents a constructor for the rendering of a region of a layer.
+     *
+     * @param frame  the render being worked on.
+     * @param index  the position of the layer to render.
+     * @param region the region of the layer to render.
+     */
+    LayerRender(Frame frame, int index, Rectangle region) {
+      this.frame = frame;
+      this.index = index;
+      this.region = region;
+    }
+
+    /**
+     * Renders the region of the layer, in buffers no other band or layer is working in.
+     */
+    @Override
+    protected void compute() {
+      Scratch scratch = takeScratch();
+      try {
+        renderLayer(this.frame, this.index, this.region, scratch);
+      } finally {
+        scratches.offer(scratch);
+      }
+    }
+  }
+
+  /**
+   * Represents what the compositor keeps of a cached layer from one render to the next.
+   */
+  private static class Cache {
+    private final byte[] states;
+    private final Rectangle bounds;
+    private final int blank;
+
+    /**
+     * Represents a constructor for what is kept of a cached layer.
+     *
+     * @param states the tile states of the layer.
+     * @param bounds the region of the layer its cache holds.
+     * @param blank  the filtered value of the blank pixels outside of the region.
+     */
+    Cache(byte[] states, Rectangle bounds, int blank) {
+      this.states = states;
+      this.bounds = bounds;
+      this.blank = blank;
+    }
+  }
+
+  /**
+   * Represents the row buffers a band works in. Every region a band renders lies within one tile,
+   * so buffers a tile wide are reused for every row of every tile of the band.
+   */
+  private static class Scratch {
+    private final int[] row = new int[TILE];
+    private final int[] sum = new int[TILE];
+    private final int[] below = new int[TILE];
+    private final int[] source = new int[TILE];
+    private final int[] lengths = new int[TILE];
+    private final byte[] red = new byte[TILE];
+    private final byte[] green = new byte[TILE];
+    private final byte[] blue = new byte[TILE];
+    private final byte[] alpha = new byte[TILE];
+  }
+}
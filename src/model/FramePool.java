@@ -0,0 +1,107 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Represents a pool of frame buffers, each one a row-major array of packed ARGB values, kept by
+ * the dimensions of the frame.
+ * Callers borrow a frame of the size they need and give it back once they are done with it, so
+ * rendering the same project over and over reuses the same few frames instead of allocating new
+ * ones. Only a few frames of each size are kept; any more are left to the garbage collector.
+ */
+public class FramePool {
+  private static final int DEFAULT_LIMIT = 4;
+
+  private final Map<Long, ArrayDeque<int[]>> frames = new HashMap<Long, ArrayDeque<int[]>>();
+  private final int limit;
+
+  /**
+   * Represents a constructor for a pool that keeps a few frames of each size.
+   */
+  public FramePool() {
+    this(DEFAULT_LIMIT);
+  }
+
+  /**
+   * Represents a constructor for a pool.
+   *
+   * @param limit the most frames of each size to keep.
+   * @throws IllegalArgumentException if the limit is negative.
+   */
+  public FramePool(int limit) throws IllegalArgumentException {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit must not be negative");
+    }
+    this.limit = limit;
+  }
+
+  /**
+   * Borrows a frame of the given size. The contents of a reused frame are left as they were, so
+   * callers must overwrite every pixel they read.
+   *
+   * @param height int height of the frame.
+   * @param width  int width of the frame.
+   * @return int[] frame of height * width values.
+   */
+  public synchronized int[] borrow(int height, int width) {
+    ArrayDeque<int[]> free = this.frames.get(key(height, width));
+    if (free == null || free.isEmpty()) {
+      return new int[height * width];
+    }
+    return free.pop();
+  }
+
+  /**
+   * Gives back a frame borrowed from the pool, or any other frame of the given size. The caller
+   * must not use the frame afterwards.
+   *
+   * @param frame  the frame to give back.
+   * @param height int height of the frame.
+   * @param width  int width of the frame.
+   * @throws IllegalArgumentException if the frame is not of the given size.
+   */
+  public synchronized void recycle(int[] frame, int height, int width)
+          throws IllegalArgumentException {
+    if (frame.length != height * width) {
+      throw new IllegalArgumentException("Frame is not of the given size");
+    }
+    ArrayDeque<int[]> free = this.frames.get(key(height, width));
+    if (free == null) {
+      free = new ArrayDeque<int[]>();
+      this.frames.put(key(height, width), free);
+    }
+    for (int[] kept : free) {
+      if (kept == frame) {
+        return;
+      }
+    }
+    if (free.size() < this.limit) {
+      free.push(frame);
+    }
+  }
+
+  /**
+   * Returns the number of frames of the given size the pool holds.
+   *
+   * @param height int height of the frames.
+   * @param width  int width of the frames.
+   * @return int number of free frames.
+   */
+  public synchronized int size(int height, int width) {
+    ArrayDeque<int[]> free = this.frames.get(key(height, width));
+    return free == null ? 0 : free.size();
+  }
+
+  /**
+   * Returns the key frames of the given size are kept under.
+   *
+   * @param height int height.
+   * @param width  int width.
+   * @return long key.
+   */
+  private static long key(int height, int width) {
+    return ((long) height << 32) | (width & 0xffffffffL);
+  }
+}
@@ -0,0 +1,67 @@
+package model;
+
+/**
+ * Represents the storage of a layer's pixels as packed ARGB values.
+ * Pixels are addressed by row and column, and are read and written a span of a row at a time so
+ * that implementations are free to lay the pixels out however suits them.
+ */
+public interface ICanvas {
+
+  /**
+   * Returns the height of the canvas.
+   *
+   * @return int height.
+   */
+  int getHeight();
+
+  /**
+   * Returns the width of the canvas.
+   *
+   * @return int width.
+   */
+  int getWidth();
+
+  /**
+   * Returns the packed ARGB value of a pixel.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return int packed ARGB value.
+   */
+  int get(int row, int col);
+
+  /**
+   * Copies a span of one row of the canvas into the given array.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  void readRow(int row, int col, int length, int[] dst, int offset);
+
+  /**
+   * Overwrites a span of one row of the canvas with the given values.
+   *
+   * @param row    the row to write to.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param src    the array to copy from.
+   * @param offset the position in src to start reading at.
+   */
+  void writeRow(int row, int col, int length, int[] src, int offset);
+
+  /**
+   * Sets every pixel of the canvas to the given value.
+   *
+   * @param argb the packed ARGB value.
+   */
+  void fill(int argb);
+
+  /**
+   * Releases any memory the canvas holds outside of the heap, right away rather than whenever
+   * the garbage collector gets to it. The canvas must not be used afterwards.
+   */
+  void release();
+}
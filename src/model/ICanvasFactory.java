@@ -0,0 +1,17 @@
+package model;
+
+/**
+ * Represents a way of creating the canvas that stores a layer's pixels.
+ */
+public interface ICanvasFactory {
+
+  /**
+   * Creates a canvas of the given size, filled with the given value.
+   *
+   * @param height int height.
+   * @param width  int width.
+   * @param argb   the packed ARGB value every pixel starts as.
+   * @return ICanvas new canvas.
+   */
+  ICanvas create(int height, int width, int argb);
+}
@@ -35,5 +35,24 @@ public interface IImage {
    */
   int getWidth();
 
+  /**
+   * Copies a span of one row of the Image into the given array as packed ARGB values.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  void readRow(int row, int col, int length, int[] dst, int offset);
+
+  /**
+   * Returns one pixel of the Image as a packed ARGB value.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return int packed ARGB value.
+   */
+  int getArgb(int row, int col);
 
 }
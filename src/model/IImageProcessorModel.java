@@ -1,6 +1,8 @@
 package model;
 
 import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.List;
 
 import model.filters.IFilter;
 
@@ -53,7 +55,27 @@ public interface IImageProcessorModel extends IImageProcessorState {
   void newProject(int height, int width, int maxValue);
 
   /**
-   * This method will set a filter to a layer.
+   * This method will replace the project with one made of the given layers, such as a project
+   * loaded from a file. The project is rendered on the same pool, and layers added to it are
+   * stored the same way, as before.
+   *
+   * @param height      int height.
+   * @param width       int width.
+   * @param nameLayers  HashMap of layers with keys as names.
+   * @param orderLayers List of layers.
+   */
+  void loadProject(int height, int width, HashMap<String, ILayer> nameLayers,
+                   List<ILayer> orderLayers);
+
+  /**
+   * This method will release the pixels of every layer in the project right away, rather than
+   * whenever the garbage collector gets to them. The layers are blank afterwards.
+   */
+  void closeProject();
+
+  /**
+   * This method will set a filter to a layer. The change is recorded, and only applied once the
+   * project is next read or rendered, so a filter replaced before then costs nothing.
    */
   void setFilter(String name, IFilter filter);
 
@@ -80,4 +102,19 @@ public interface IImageProcessorModel extends IImageProcessorState {
    * This method will return a BufferedImage of the final canvas.
    */
   public BufferedImage compressImage();
+
+  /**
+   * This method gives an image returned by compressImage back to the model once the caller is
+   * done with it, so its pixels can be reused by the next export.
+   *
+   * @param image the image to recycle, which must not be used afterwards.
+   */
+  void recycleImage(BufferedImage image);
+
+  /**
+   * This method will return a read only snapshot of the project as it is now. The snapshot can
+   * be rendered and saved on another thread while the project keeps being edited.
+   * @return IProjectSnapshot the snapshot.
+   */
+  IProjectSnapshot snapshot();
 }
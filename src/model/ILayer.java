@@ -1,5 +1,7 @@
 package model;
 
+import java.awt.Rectangle;
+
 import model.filters.IFilter;
 
 /**
@@ -79,4 +81,141 @@ public interface ILayer {
    * @param canvas 2D array of pixels.
    */
   public void setCanvas(IPixel[][] canvas);
+
+  /**
+   * Returns the packed ARGB value of the pixel at a given x and y.
+   * As with getPixel, x is the row and y is the column.
+   *
+   * @param x int x coord.
+   * @param y int y coord.
+   * @return int packed ARGB value.
+   */
+  int getArgb(int x, int y);
+
+  /**
+   * Copies a span of one row of the layer's packed ARGB pixels into the given array.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  void readRow(int row, int col, int length, int[] dst, int offset);
+
+  /**
+   * Overwrites a span of one row of the layer's pixels with the given packed ARGB values.
+   *
+   * @param row    the row to write to.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param src    the array to copy from.
+   * @param offset the position in src to start reading at.
+   */
+  void writeRow(int row, int col, int length, int[] src, int offset);
+
+  /**
+   * Copies a span of one row of the layer's pixels into the given planes, one byte per pixel for
+   * each channel.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param red    the red plane to copy into.
+   * @param green  the green plane to copy into.
+   * @param blue   the blue plane to copy into.
+   * @param alpha  the alpha plane to copy into.
+   * @param offset the position in the planes to start writing at.
+   */
+  void readPlanes(int row, int col, int length, byte[] red, byte[] green, byte[] blue,
+                  byte[] alpha, int offset);
+
+  /**
+   * Copies a span of one row of the layer's pixels into the given arrays as runs of identical
+   * packed ARGB values. The lengths of the runs add up to the length of the span, and the arrays
+   * must have room for as many runs as there are pixels in the span.
+   *
+   * @param row     the row to read from.
+   * @param col     the first column of the span.
+   * @param length  the number of pixels to read.
+   * @param lengths the array to copy the length of each run into.
+   * @param values  the array to copy the packed ARGB value of each run into.
+   * @param offset  the position in the arrays to start writing at.
+   * @return int the number of runs copied.
+   */
+  int readRuns(int row, int col, int length, int[] lengths, int[] values, int offset);
+
+  /**
+   * Returns the version of the layer. The version changes every time the layer's source pixels
+   * or filter change, and no two layers ever share a version.
+   *
+   * @return long version.
+   */
+  long getVersion();
+
+  /**
+   * Returns the factory creating the canvas that stores the layer's pixels, which its cached
+   * result is stored in as well.
+   *
+   * @return ICanvasFactory the storage of the layer.
+   */
+  ICanvasFactory getStorage();
+
+  /**
+   * Returns the cached result of applying the layer's filter to its source pixels. The cache may
+   * only hold a region of the layer, which whoever cached it keeps track of. It is kept when the
+   * layer changes, so it is only up to date outside of the regions reported by takeDirty.
+   *
+   * @return ICanvas cached rendered pixels, or null if the layer has not been rendered.
+   */
+  ICanvas getRendered();
+
+  /**
+   * Caches the result of applying the layer's filter to its source pixels. The source pixels are
+   * left unchanged. Callers must not modify the canvas after handing it to the layer, except to
+   * bring regions reported by takeDirty up to date. A cache that is replaced is released.
+   *
+   * @param rendered the rendered pixels, or null to drop the cached result.
+   */
+  void setRendered(ICanvas rendered);
+
+  /**
+   * Returns the region of the layer that changed since the last call, and marks the layer clean.
+   * The x and y of the region are the column and row it starts at.
+   *
+   * @return Rectangle changed region, empty if nothing changed.
+   */
+  Rectangle takeDirty();
+
+  /**
+   * Returns the bounds of the layer's content. Every pixel outside of the bounds is still the
+   * blank, fully transparent white the layer started as, so the bounds may be larger than the
+   * content but never smaller. The x and y of the bounds are the column and row they start at.
+   *
+   * @return Rectangle content bounds, empty if the layer is blank.
+   */
+  Rectangle getContentBounds();
+
+  /**
+   * Returns whether every pixel of the layer is known to be the same color, in which case the
+   * layer does not hold a canvas and filters only need to transform one of its pixels.
+   *
+   * @return boolean true if the layer is one color throughout.
+   */
+  boolean isConstant();
+
+  /**
+   * Drops the pixels of the layer and its cached result, releasing the memory they hold right
+   * away. The layer is blank afterwards.
+   */
+  void release();
+
+  /**
+   * Returns a read only copy of the layer as it is now, with the same version. The copy shares
+   * the layer's pixels and is unaffected by later changes to the layer, so it can be rendered on
+   * another thread while the layer is edited. Its own cached result starts out empty.
+   *
+   * @return ILayer the snapshot.
+   */
+  ILayer snapshot();
 }
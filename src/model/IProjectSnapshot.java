@@ -0,0 +1,29 @@
+package model;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Represents an interface for a read only snapshot of a project.
+ */
+public interface IProjectSnapshot extends IImageProcessorState {
+
+  /**
+   * This method will return the version of the snapshot. A later snapshot of the same project
+   * has a higher version, unless nothing changed in between, in which case it is the same
+   * snapshot.
+   * @return long version.
+   */
+  long getVersion();
+
+  /**
+   * This method will produce the final canvas for all layers of the snapshot for PPM.
+   * @return IPixel[][] finalPixels.
+   */
+  IPixel[][] saveCanvas();
+
+  /**
+   * This method will return a BufferedImage of the final canvas of the snapshot.
+   * @return BufferedImage the image.
+   */
+  BufferedImage compressImage();
+}
@@ -1,17 +1,31 @@
 package model;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 import model.filters.IFilter;
+import model.filters.LookupTables;
 import model.filters.Normal;
 
 
 /**
  * Represents the model for this program.
+ * Projects the model creates keep the order of their layers in a LayerOrder, so looking up the
+ * position of a layer or swapping two layers stays fast in projects with thousands of layers.
+ * A project loaded from existing layers keeps using the list it was given.
  */
 public class ImageProcessorModel implements IImageProcessorModel {
   private int height;
@@ -19,6 +33,14 @@ public class ImageProcessorModel implements IImageProcessorModel {
   private int maxValue;
   private HashMap<String, ILayer> nameLayers;
   private List<ILayer> orderLayers;
+  private final Compositor compositor = new Compositor();
+  private final FramePool frames = new FramePool();
+  private final Map<ILayer, IFilter> pendingFilters = new IdentityHashMap<ILayer, IFilter>();
+  private ICanvasFactory storage = TiledCanvas::new;
+  private ForkJoinPool pool;
+  private LookupTables tables;
+  private WeakReference<ProjectSnapshot> lastSnapshot;
+  private long snapshots;
 
 
   /**
@@ -71,10 +93,54 @@ public class ImageProcessorModel implements IImageProcessorModel {
     this.width = width;
     this.maxValue = maxValue;
     this.nameLayers = new HashMap<String, ILayer>();
-    this.orderLayers = new ArrayList<ILayer>();
+    this.orderLayers = new LayerOrder();
     this.addLayer("background", new Normal());
   }
 
+  /**
+   * This method sets the pool the project is rendered on. With a pool, the canvas is split into
+   * bands of rows that are filtered and composited in parallel, with the same result as rendering
+   * on the calling thread.
+   *
+   * @param pool the pool to render on, or null to render on the calling thread.
+   */
+  public void setRenderPool(ForkJoinPool pool) {
+    this.pool = pool;
+    this.compositor.setPool(pool);
+  }
+
+  /**
+   * This method sets how the pixels of layers added from now on, and their rendered results, are
+   * stored. By default layers are tiled, so a layer only pays for the tiles that images are
+   * placed on. OffHeapCanvas keeps very large projects out of the heap, and RunCanvas suits layers
+   * that are mostly blank, such as a caption or a logo on an otherwise empty layer.
+   *
+   * @param storage the factory creating the canvas of each new layer.
+   * @throws IllegalArgumentException if the factory is null.
+   */
+  public void setStorage(ICanvasFactory storage) throws IllegalArgumentException {
+    if (storage == null) {
+      throw new IllegalArgumentException("invalid arguments");
+    }
+    this.storage = storage;
+  }
+
+  /**
+   * This method sets whether filters that only look at the color of the pixel they change are
+   * compiled into lookup tables, so each pixel takes one lookup however much work its filter does.
+   * The exact tables give the same result as the filters and take 64MB each, so only the few used
+   * most recently are kept; the grid tables are small but only approximate the filters between
+   * the colors they hold. The tables are released along with the project and its snapshots.
+   *
+   * @param lookup whether to compile filters into lookup tables.
+   * @param exact  whether to use the exact tables, or the smaller, interpolated grids.
+   */
+  public void setLookupTables(boolean lookup, boolean exact) {
+    this.tables = lookup ? new LookupTables(exact) : null;
+    this.compositor.setLookupTables(this.tables);
+    this.lastSnapshot = null;
+  }
+
   /**
    * This method gets the height of the image.
    *
@@ -115,6 +181,7 @@ public class ImageProcessorModel implements IImageProcessorModel {
     if (!this.nameLayers.containsKey(string)) {
       throw new IllegalArgumentException("The layer does not exist.");
     }
+    this.evaluate();
     return this.nameLayers.get(string);
   }
 
@@ -129,6 +196,7 @@ public class ImageProcessorModel implements IImageProcessorModel {
     if (num < 0 || num >= this.orderLayers.size()) {
       throw new IllegalArgumentException("The layer does not exist.");
     }
+    this.evaluate();
     return this.orderLayers.get(num);
   }
 
@@ -139,6 +207,7 @@ public class ImageProcessorModel implements IImageProcessorModel {
    */
   @Override
   public List<ILayer> getLayers() {
+    this.evaluate();
     return this.orderLayers;
   }
 
@@ -149,6 +218,7 @@ public class ImageProcessorModel implements IImageProcessorModel {
    */
   @Override
   public HashMap<String, ILayer> getMapLayers() {
+    this.evaluate();
     return this.nameLayers;
   }
 
@@ -181,8 +251,7 @@ public class ImageProcessorModel implements IImageProcessorModel {
       throw new IllegalArgumentException("The layers are already in the same position.");
     }
 
-    Collections.swap(this.orderLayers, this.orderLayers.indexOf(this.getLayer(a)),
-            this.orderLayers.indexOf(this.getLayer(b)));
+    Collections.swap(this.orderLayers, this.getLayerPosition(a), this.getLayerPosition(b));
   }
 
 
@@ -212,7 +281,7 @@ public class ImageProcessorModel implements IImageProcessorModel {
     if (this.nameLayers.containsKey(name)) {
       throw new IllegalArgumentException("The layer already exists.");
     }
-    this.nameLayers.put(name, (new Layer(name, filter, this.height, this.width)));
+    this.nameLayers.put(name, (new Layer(name, filter, this.height, this.width, this.storage)));
     this.orderLayers.add(this.nameLayers.get(name));
   }
 
@@ -226,7 +295,8 @@ public class ImageProcessorModel implements IImageProcessorModel {
     if (this.nameLayers.containsKey(name)) {
       throw new IllegalArgumentException("The layer already exists.");
     }
-    this.nameLayers.put(name, (new Layer(name, new Normal(), this.height, this.width)));
+    this.nameLayers.put(name, (new Layer(name, new Normal(), this.height, this.width,
+            this.storage)));
     this.orderLayers.add(this.nameLayers.get(name));
   }
 
@@ -236,16 +306,55 @@ public class ImageProcessorModel implements IImageProcessorModel {
    * This would be the background canvas.
    */
   public void newProject(int height, int width, int maxValue) {
+    this.closeProject();
     this.height = height;
     this.width = width;
     this.maxValue = maxValue;
     this.nameLayers = new HashMap<String, ILayer>();
-    this.orderLayers = new ArrayList<ILayer>();
+    this.orderLayers = new LayerOrder();
     this.addLayer("background", new Normal());
   }
 
   /**
-   * This method will set a filter to a layer.
+   * This method will replace the project with one made of the given layers, such as a project
+   * loaded from a file. The pool, storage and lookup tables the project was set to use are kept.
+   *
+   * @param height      int height.
+   * @param width       int width.
+   * @param nameLayers  HashMap of layers with keys as names.
+   * @param orderLayers List of layers.
+   * @throws IllegalArgumentException if the size is negative or the layers are null.
+   */
+  @Override
+  public void loadProject(int height, int width, HashMap<String, ILayer> nameLayers,
+                          List<ILayer> orderLayers) throws IllegalArgumentException {
+    if (height < 0 || width < 0 || nameLayers == null || orderLayers == null) {
+      throw new IllegalArgumentException("invalid arguments");
+    }
+    this.closeProject();
+    this.height = height;
+    this.width = width;
+    this.maxValue = 255;
+    this.nameLayers = nameLayers;
+    this.orderLayers = orderLayers;
+  }
+
+  /**
+   * This method will release the pixels of every layer in the project right away, rather than
+   * whenever the garbage collector gets to them. The layers are blank afterwards.
+   */
+  @Override
+  public void closeProject() {
+    this.pendingFilters.clear();
+    for (ILayer layer : this.orderLayers) {
+      layer.release();
+    }
+  }
+
+  /**
+   * This method will set a filter to a layer. The filter is only recorded here; it is given to
+   * the layer once the project is next read or rendered, replacing any filter recorded for the
+   * layer before it.
    *
    * @param name name of layer.
    * @throws IllegalArgumentException if the layer does not exist.
@@ -254,7 +363,25 @@ public class ImageProcessorModel implements IImageProcessorModel {
     if (!this.nameLayers.containsKey(name)) {
       throw new IllegalArgumentException("The layer does not exist.");
     }
-    this.getLayer(name).setFilter(filter);
+    this.pendingFilters.put(this.nameLayers.get(name), filter);
+  }
+
+  /**
+   * This method will apply the filters recorded since the project was last read or rendered.
+   * Filters hold no settings beyond what their name says, such as the filters of a chain, so a
+   * layer whose recorded filter is of the same kind and name as the one it already has is left as
+   * it is, and its cached result stays valid.
+   */
+  private void evaluate() {
+    for (Map.Entry<ILayer, IFilter> entry : this.pendingFilters.entrySet()) {
+      IFilter current = entry.getKey().getFilter();
+      IFilter filter = entry.getValue();
+      if (current == null || filter == null || current.getClass() != filter.getClass()
+              || !Objects.equals(current.getName(), filter.getName())) {
+        entry.getKey().setFilter(filter);
+      }
+    }
+    this.pendingFilters.clear();
   }
 
   /**
@@ -279,26 +406,30 @@ public class ImageProcessorModel implements IImageProcessorModel {
    * @return IPixel[][] finalPixels.
    */
   public IPixel[][] saveCanvas() {
+    this.evaluate();
+    int[] composite = this.frames.borrow(getHeight(), getWidth());
+    this.compositor.render(orderLayers, getHeight(), getWidth(), composite);
     IPixel[][] finalPixels = new IPixel[getHeight()][getWidth()];
-    for (int x = 0; x < orderLayers.size(); x++) {
-      ILayer layer = orderLayers.get(x);
-      layer.setCanvas(layer.getFilter().apply(orderLayers, layer));
-      for (int i = 0; i < getHeight(); i++) {
-        for (int j = 0; j < getWidth(); j++) {
-          finalPixels[i][j] = orderLayers.get(x).getPixel(i, j);
-        }
+    for (int i = 0; i < getHeight(); i++) {
+      for (int j = 0; j < getWidth(); j++) {
+        finalPixels[i][j] = new PackedPixel(composite[i * getWidth() + j]);
       }
     }
+    this.frames.recycle(composite, getHeight(), getWidth());
     return finalPixels;
   }
 
   /**
-   * This method will return the list of layers in the project.
+   * This method will return the names of the layers in the project, bottom to top.
    *
    * @return String list of layers.
    */
   public String listLayers() {
-    return String.join(",", nameLayers.keySet());
+    List<String> names = new ArrayList<String>(this.orderLayers.size());
+    for (ILayer layer : this.orderLayers) {
+      names.add(layer.getName());
+    }
+    return String.join(",", names);
   }
 
   /**
@@ -313,27 +444,57 @@ public class ImageProcessorModel implements IImageProcessorModel {
 
   /**
    * This method will return the list of filters in the project.
+   * The image is backed by a frame borrowed from the model's pool, which recycleImage gives back.
    *
    * @return String list of filters.
    */
   public BufferedImage compressImage() {
-    BufferedImage image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_ARGB);
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        IPixel[][] finalPixels = this.saveCanvas();
-        int r = finalPixels[i][j].getRed();
-        int g = finalPixels[i][j].getGreen();
-        int b = finalPixels[i][j].getBlue();
-        int a = finalPixels[i][j].getAlpha();
-
-        int argb = a << 24;
-        argb |= r << 16;
-        argb |= g << 8;
-        argb |= b;
-
-        image.setRGB(j, i, argb);
-      }
+    //TYPE_INT_ARGB rasters are packed ARGB in row-major order, so render straight into them.
+    this.evaluate();
+    int[] frame = this.frames.borrow(this.height, this.width);
+    this.compositor.render(orderLayers, this.height, this.width, frame);
+    DirectColorModel argb = (DirectColorModel) ColorModel.getRGBdefault();
+    WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(frame, frame.length),
+            this.width, this.height, this.width, argb.getMasks(), null);
+    return new BufferedImage(argb, raster, false, null);
+  }
+
+  /**
+   * This method gives the frame behind an image from compressImage back to the model, to be
+   * reused by the next export. The image must not be used afterwards.
+   *
+   * @param image the image to recycle.
+   */
+  @Override
+  public void recycleImage(BufferedImage image) {
+    if (image == null || image.getWidth() != this.width || image.getHeight() != this.height
+            || !(image.getRaster().getDataBuffer() instanceof DataBufferInt)) {
+      return;
+    }
+    int[] frame = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    if (frame.length == this.height * this.width) {
+      this.frames.recycle(frame, this.height, this.width);
+    }
+  }
+
+  /**
+   * This method will return a read only snapshot of the project as it is now. Layers share their
+   * pixels with their snapshots until they are next written to, and while nothing changes the
+   * same snapshot is returned again. The project does not keep the snapshot from being collected,
+   * so once its caller is done with it, the layers stop copying their pixels on write.
+   *
+   * @return IProjectSnapshot the snapshot.
+   */
+  @Override
+  public IProjectSnapshot snapshot() {
+    this.evaluate();
+    ProjectSnapshot snapshot = this.lastSnapshot == null ? null : this.lastSnapshot.get();
+    if (snapshot == null
+            || !snapshot.matches(this.orderLayers, this.height, this.width, this.maxValue)) {
+      snapshot = new ProjectSnapshot(++this.snapshots, this.height, this.width, this.maxValue,
+              this.orderLayers, this.pool, this.tables);
+      this.lastSnapshot = new WeakReference<ProjectSnapshot>(snapshot);
     }
-    return image;
+    return snapshot;
   }
 }
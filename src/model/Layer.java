@@ -1,6 +1,13 @@
 package model;
 
 
+import java.awt.Rectangle;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 import model.filters.IFilter;
 
 /**
@@ -12,12 +19,27 @@ import model.filters.IFilter;
  */
 
 public class Layer implements ILayer {
-  private IPixel[][] canvas;
+  private static final int TRANSPARENT_WHITE = PackedPixel.pack(255, 255, 255, 0);
+  private static final int OPAQUE_WHITE = PackedPixel.pack(255, 255, 255, 255);
+  private static final AtomicLong VERSIONS = new AtomicLong();
+  private static final int MAX_PLACEMENTS = 16;
+
+  private final ICanvasFactory storage;
+  private ICanvas canvas;
+  private int constant;
   private String name;
   private IFilter filter;
   private int height;
   private int width;
-
+  private long version;
+  private ICanvas rendered;
+  private Rectangle dirty;
+  private Rectangle content = new Rectangle();
+  private final List<Placement> placements = new ArrayList<Placement>();
+  //the snapshots sharing the canvas, held weakly so that a snapshot no longer in use stops
+  //sharing it, and whether this layer is such a snapshot
+  private final List<WeakReference<Layer>> snapshots = new ArrayList<WeakReference<Layer>>();
+  private final boolean frozen;
 
 
   /**
@@ -29,17 +51,49 @@ public class Layer implements ILayer {
    * @param width  width of the layer.
    */
   public Layer(String name, IFilter filter, int height, int width) {
+    this(name, filter, height, width, PackedCanvas::new);
+  }
+
+  /**
+   * Represents a constructor for a Layer whose pixels are stored in a canvas from the given
+   * factory, as packed ARGB values. A new layer is one color throughout and keeps just that
+   * color, only creating its canvas once something is written to it.
+   *
+   * @param name    name of the layer.
+   * @param filter  filter of the layer.
+   * @param height  height of the layer.
+   * @param width   width of the layer.
+   * @param storage the factory creating the canvas that stores the layer's pixels.
+   */
+  public Layer(String name, IFilter filter, int height, int width, ICanvasFactory storage) {
     this.name = name;
     this.filter = filter;
     this.height = height;
     this.width = width;
-    this.canvas = new IPixel[height][width];
+    this.storage = storage;
     //creates a blank background for each layer, all white and fully transparent
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        this.canvas[i][j] = new Pixel(255, 255, 255, 0);
-      }
-    }
+    this.constant = TRANSPARENT_WHITE;
+    this.frozen = false;
+    this.changed(0, 0, width, height);
+  }
+
+  /**
+   * Represents a constructor for a read only snapshot of a layer, sharing its pixels.
+   *
+   * @param layer the layer to take a snapshot of.
+   */
+  private Layer(Layer layer) {
+    this.name = layer.name;
+    this.filter = layer.filter;
+    this.height = layer.height;
+    this.width = layer.width;
+    this.storage = layer.storage;
+    this.canvas = layer.canvas;
+    this.constant = layer.constant;
+    this.content = new Rectangle(layer.content);
+    this.placements.addAll(layer.placements);
+    this.version = layer.version;
+    this.frozen = true;
   }
 
   /**
@@ -60,7 +114,29 @@ public class Layer implements ILayer {
    */
   @Override
   public IPixel getPixel(int x, int y) {
-    return this.canvas[x][y];
+    return new PackedPixel(this.getArgb(x, y));
+  }
+
+  /**
+   * Returns the packed ARGB value of the pixel at a given x and y.
+   *
+   * @param x int x coord.
+   * @param y int y coord.
+   * @return int packed ARGB value.
+   * @throws IllegalArgumentException if the coordinates are outside the layer.
+   */
+  @Override
+  public int getArgb(int x, int y) throws IllegalArgumentException {
+    if (x < 0 || y < 0 || x >= this.height || y >= this.width) {
+      throw new IllegalArgumentException("Pixel must be within bounds");
+    }
+    for (int k = this.placements.size() - 1; k >= 0; k--) {
+      Placement placement = this.placements.get(k);
+      if (placement.clip.contains(y, x)) {
+        return placement.image.getArgb(x - placement.clip.y, y - placement.clip.x);
+      }
+    }
+    return this.canvas == null ? this.constant : this.canvas.get(x, y);
   }
 
   /**
@@ -99,12 +175,17 @@ public class Layer implements ILayer {
    * @param filter to be set.
    */
   public void setFilter(IFilter filter) {
+    this.checkWritable();
     this.filter = filter;
+    this.changed(0, 0, this.width, this.height);
   }
 
 
   /**
-   * Adds an image to the layer.
+   * Adds an image to the layer. The image is placed by reference, clipped to the layer, and
+   * hides any image placed before it that it covers entirely. Reads go through to the image, so
+   * an image placed on several layers is only held once; the placed images are copied into the
+   * canvas the first time the layer's pixels are written to directly.
    *
    * @param x     int offset.
    * @param y     int offset.
@@ -114,14 +195,21 @@ public class Layer implements ILayer {
     if (x < 0 || y < 0) {
       throw new IllegalArgumentException("invalid bounds for image");
     }
+    this.checkWritable();
 
-    for (int i = 0; i < image.getHeight(); i++) {
-      for (int j = 0; j < image.getWidth(); j++) {
-        if (i + y < this.height && j + x < this.width) {
-          this.canvas[i + y][j + x] = image.getPixel(i, j);
-        }
+    int rows = Math.min(image.getHeight(), this.height - y);
+    int cols = Math.min(image.getWidth(), this.width - x);
+    if (rows > 0 && cols > 0) {
+      Rectangle clip = new Rectangle(x, y, cols, rows);
+      this.placements.removeIf(placement -> clip.contains(placement.clip));
+      if (this.placements.size() == MAX_PLACEMENTS) {
+        //keeps reads cheap for layers that images are placed on over and over
+        this.flatten();
       }
+      this.placements.add(new Placement(image, clip));
+      this.content = this.content.isEmpty() ? clip : this.content.union(clip);
     }
+    this.changed(x, y, cols, rows);
   }
 
 
@@ -129,19 +217,31 @@ public class Layer implements ILayer {
    * Sets canvas to all white opaque background.
    */
   public void firstLayer() {
-    this.canvas = new IPixel[height][width];
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        this.canvas[i][j] = new Pixel(255, 255, 255, 255);
-      }
-    }
+    this.checkWritable();
+    //drops the canvas, the layer is just one color again
+    this.canvas = null;
+    this.snapshots.clear();
+    this.placements.clear();
+    this.constant = OPAQUE_WHITE;
+    this.content = new Rectangle(0, 0, this.width, this.height);
+    this.changed(0, 0, this.width, this.height);
   }
 
   /**
    * Returns the canvas of the layer.
+   * The returned array is a copy made of lightweight pixel views, so modifying it does not
+   * change the layer.
    */
   public IPixel[][] getCanvas() {
-    return this.canvas;
+    IPixel[][] pixels = new IPixel[this.height][this.width];
+    int[] row = new int[this.width];
+    for (int i = 0; i < this.height; i++) {
+      this.readRow(i, 0, this.width, row, 0);
+      for (int j = 0; j < this.width; j++) {
+        pixels[i][j] = new PackedPixel(row[j]);
+      }
+    }
+    return pixels;
   }
 
 
@@ -149,9 +249,362 @@ public class Layer implements ILayer {
    * Sets the canvas of the layer.
    *
    * @param canvas to be set.
+   * @throws IllegalArgumentException if the canvas is not the size of the layer.
    */
-  public void setCanvas(IPixel[][] canvas) {
-    this.canvas = canvas;
+  public void setCanvas(IPixel[][] canvas) throws IllegalArgumentException {
+    if (canvas.length != this.height || (this.height > 0 && canvas[0].length != this.width)) {
+      throw new IllegalArgumentException("Canvas must be the same size as the layer");
+    }
+    this.checkWritable();
+    this.placements.clear();
+    this.materialize();
+    int[] row = new int[this.width];
+    this.content = new Rectangle();
+    for (int i = 0; i < this.height; i++) {
+      for (int j = 0; j < this.width; j++) {
+        row[j] = PackedPixel.pack(canvas[i][j]);
+      }
+      this.canvas.writeRow(i, 0, this.width, row, 0);
+      this.include(i, 0, this.width, row, 0);
+    }
+    this.changed(0, 0, this.width, this.height);
   }
-}
 
+  /**
+   * Copies a span of one row of the layer's packed ARGB pixels into the given array, reading
+   * through to the images placed on the span.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  @Override
+  public void readRow(int row, int col, int length, int[] dst, int offset) {
+    if (this.canvas == null) {
+      Arrays.fill(dst, offset, offset + length, this.constant);
+    } else {
+      this.canvas.readRow(row, col, length, dst, offset);
+    }
+    for (Placement placement : this.placements) {
+      Rectangle clip = placement.clip;
+      int start = Math.max(col, clip.x);
+      int end = Math.min(col + length, clip.x + clip.width);
+      if (row >= clip.y && row < clip.y + clip.height && start < end) {
+        placement.image.readRow(row - clip.y, start - clip.x, end - start, dst,
+                offset + start - col);
+      }
+    }
+  }
+
+  /**
+   * Overwrites a span of one row of the layer's pixels with the given packed ARGB values.
+   *
+   * @param row    the row to write to.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param src    the array to copy from.
+   * @param offset the position in src to start reading at.
+   */
+  @Override
+  public void writeRow(int row, int col, int length, int[] src, int offset) {
+    this.checkWritable();
+    this.flatten();
+    this.materialize();
+    this.canvas.writeRow(row, col, length, src, offset);
+    this.include(row, col, length, src, offset);
+    this.changed(col, row, length, 1);
+  }
+
+  /**
+   * Copies a span of one row of the layer's pixels into the given planes. A planar canvas is
+   * copied plane by plane, any other canvas is split into planes.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param red    the red plane to copy into.
+   * @param green  the green plane to copy into.
+   * @param blue   the blue plane to copy into.
+   * @param alpha  the alpha plane to copy into.
+   * @param offset the position in the planes to start writing at.
+   */
+  @Override
+  public void readPlanes(int row, int col, int length, byte[] red, byte[] green, byte[] blue,
+                         byte[] alpha, int offset) {
+    if (this.canvas instanceof PlanarCanvas && this.placements.isEmpty()) {
+      ((PlanarCanvas) this.canvas).readPlanes(row, col, length, red, green, blue, alpha, offset);
+      return;
+    }
+    int[] span = new int[length];
+    this.readRow(row, col, length, span, 0);
+    PlanarCanvas.unpack(span, 0, red, green, blue, alpha, offset, length);
+  }
+
+  /**
+   * Copies a span of one row of the layer's pixels into the given arrays as runs. A run-length
+   * encoded canvas hands over the runs it keeps, any other canvas is read and then encoded.
+   *
+   * @param row     the row to read from.
+   * @param col     the first column of the span.
+   * @param length  the number of pixels to read.
+   * @param lengths the array to copy the length of each run into.
+   * @param values  the array to copy the packed ARGB value of each run into.
+   * @param offset  the position in the arrays to start writing at.
+   * @return int the number of runs copied.
+   */
+  @Override
+  public int readRuns(int row, int col, int length, int[] lengths, int[] values, int offset) {
+    if (this.canvas instanceof RunCanvas && this.placements.isEmpty()) {
+      return ((RunCanvas) this.canvas).readRuns(row, col, length, lengths, values, offset);
+    }
+    this.readRow(row, col, length, values, offset);
+    return RunCanvas.encode(values, offset, length, lengths, values, offset);
+  }
+
+  /**
+   * Returns the version of the layer.
+   *
+   * @return long version.
+   */
+  @Override
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Returns the factory creating the canvas that stores the layer's pixels.
+   *
+   * @return ICanvasFactory the storage of the layer.
+   */
+  @Override
+  public ICanvasFactory getStorage() {
+    return this.storage;
+  }
+
+  /**
+   * Returns the cached result of applying the layer's filter to its source pixels.
+   *
+   * @return ICanvas cached rendered pixels, or null if the layer has not been rendered.
+   */
+  @Override
+  public ICanvas getRendered() {
+    return this.rendered;
+  }
+
+  /**
+   * Caches the result of applying the layer's filter to its source pixels.
+   *
+   * @param rendered the rendered pixels, or null.
+   * @throws IllegalArgumentException if the rendered pixels are larger than the layer.
+   */
+  @Override
+  public void setRendered(ICanvas rendered) throws IllegalArgumentException {
+    if (rendered != null
+            && (rendered.getHeight() > this.height || rendered.getWidth() > this.width)) {
+      throw new IllegalArgumentException("Rendered pixels must fit within the layer");
+    }
+    if (this.rendered != null && this.rendered != rendered) {
+      this.rendered.release();
+    }
+    this.rendered = rendered;
+  }
+
+  /**
+   * Returns the region of the layer that changed since the last call, and marks the layer clean.
+   *
+   * @return Rectangle changed region, empty if nothing changed.
+   */
+  @Override
+  public Rectangle takeDirty() {
+    Rectangle region = this.dirty == null ? new Rectangle() : this.dirty;
+    this.dirty = null;
+    return region;
+  }
+
+  /**
+   * Returns the bounds of the layer's content, outside of which every pixel is blank.
+   *
+   * @return Rectangle content bounds, empty if the layer is blank.
+   */
+  @Override
+  public Rectangle getContentBounds() {
+    return new Rectangle(this.content);
+  }
+
+  /**
+   * Returns whether every pixel of the layer is the same color, without the layer holding a
+   * canvas or any placed image.
+   *
+   * @return boolean true if the layer is one color throughout.
+   */
+  @Override
+  public boolean isConstant() {
+    return this.canvas == null && this.placements.isEmpty();
+  }
+
+  /**
+   * Returns a read only copy of the layer as it is now, sharing its pixels rather than copying
+   * them. The layer copies its canvas the first time it is written to afterwards, so the
+   * snapshot can be read on another thread while the layer keeps being edited. Once the snapshot
+   * is no longer reachable the layer writes to its canvas in place again.
+   *
+   * @return ILayer the snapshot.
+   */
+  @Override
+  public ILayer snapshot() {
+    Layer snapshot = new Layer(this);
+    if (this.canvas != null) {
+      this.snapshots.add(new WeakReference<Layer>(snapshot));
+    }
+    return snapshot;
+  }
+
+  /**
+   * Drops the pixels of the layer and its cached result, releasing the memory they hold right
+   * away. The layer is blank afterwards. Pixels shared with a snapshot are left to it.
+   */
+  @Override
+  public void release() {
+    this.checkWritable();
+    if (this.canvas != null) {
+      if (!this.isShared()) {
+        this.canvas.release();
+      }
+      this.canvas = null;
+      this.snapshots.clear();
+    }
+    this.placements.clear();
+    this.constant = TRANSPARENT_WHITE;
+    this.content = new Rectangle();
+    this.setRendered(null);
+    this.changed(0, 0, this.width, this.height);
+  }
+
+  /**
+   * Creates the canvas of a layer that is one color throughout, so it can be written to.
+   */
+  private void materialize() {
+    if (this.canvas == null) {
+      this.canvas = this.storage.create(this.height, this.width, this.constant);
+    } else if (this.isShared() && this.canvas instanceof TiledCanvas) {
+      //the snapshot keeps the old canvas, whose tiles are only copied once written to
+      this.canvas = ((TiledCanvas) this.canvas).share();
+    } else if (this.isShared()) {
+      //every pixel outside the content is blank, so only the content needs to be copied
+      ICanvas copy = this.storage.create(this.height, this.width, TRANSPARENT_WHITE);
+      int[] row = new int[this.width];
+      Rectangle content = this.content;
+      for (int i = content.y; i < content.y + content.height; i++) {
+        this.canvas.readRow(i, content.x, content.width, row, 0);
+        copy.writeRow(i, content.x, content.width, row, 0);
+      }
+      this.canvas = copy;
+    }
+    this.snapshots.clear();
+  }
+
+  /**
+   * Returns whether a snapshot that is still reachable shares the canvas of the layer.
+   *
+   * @return boolean true if the canvas must be copied before it is written to.
+   */
+  private boolean isShared() {
+    this.snapshots.removeIf(snapshot -> snapshot.get() == null);
+    return !this.snapshots.isEmpty();
+  }
+
+  /**
+   * Checks that the layer can be changed.
+   *
+   * @throws UnsupportedOperationException if the layer is a snapshot.
+   */
+  private void checkWritable() throws UnsupportedOperationException {
+    if (this.frozen) {
+      throw new UnsupportedOperationException("Layer snapshots are read only");
+    }
+  }
+
+  /**
+   * Copies the images placed on the layer into its canvas, oldest first, so that the canvas can
+   * be written to without changing the images.
+   */
+  private void flatten() {
+    if (this.placements.isEmpty()) {
+      return;
+    }
+    this.materialize();
+    int[] row = new int[this.width];
+    for (Placement placement : this.placements) {
+      Rectangle clip = placement.clip;
+      for (int i = 0; i < clip.height; i++) {
+        placement.image.readRow(i, 0, clip.width, row, 0);
+        this.canvas.writeRow(clip.y + i, clip.x, clip.width, row, 0);
+      }
+    }
+    this.placements.clear();
+  }
+
+  /**
+   * Grows the content bounds to hold the pixels of a span of one row that are not blank.
+   *
+   * @param row    the row of the span.
+   * @param col    the first column of the span.
+   * @param length the number of pixels in the span.
+   * @param values the packed ARGB values of the span.
+   * @param offset the position in values the span starts at.
+   */
+  private void include(int row, int col, int length, int[] values, int offset) {
+    int first = 0;
+    while (first < length && values[offset + first] == TRANSPARENT_WHITE) {
+      first++;
+    }
+    if (first == length) {
+      return;
+    }
+    int last = length - 1;
+    while (values[offset + last] == TRANSPARENT_WHITE) {
+      last--;
+    }
+    Rectangle span = new Rectangle(col + first, row, last - first + 1, 1);
+    this.content = this.content.isEmpty() ? span : this.content.union(span);
+  }
+
+  /**
+   * Moves the layer to a new version and records the given region as dirty.
+   *
+   * @param x      the first column of the region.
+   * @param y      the first row of the region.
+   * @param width  the width of the region.
+   * @param height the height of the region.
+   */
+  private void changed(int x, int y, int width, int height) {
+    this.version = VERSIONS.incrementAndGet();
+    if (width <= 0 || height <= 0) {
+      return;
+    }
+    Rectangle region = new Rectangle(x, y, width, height);
+    this.dirty = this.dirty == null ? region : this.dirty.union(region);
+  }
+
+  /**
+   * Represents an image placed on the layer, along with the region of the layer it shows in. The
+   * x and y of the region are the column and row the image's first pixel is placed at.
+   */
+  private static class Placement {
+    private final IImage image;
+    private final Rectangle clip;
+
+    /**
+     * Represents a constructor for a placed image.
+     *
+     * @param image the image placed.
+     * @param clip  the region of the layer the image shows in.
+     */
+    Placement(IImage image, Rectangle clip) {
+      this.image = image;
+      this.clip = clip;
+    }
+  }
+}
@@ -0,0 +1,398 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Represents the order of the layers of a project, bottom to top.
+ * The layers are kept in a balanced tree ordered by position, where each node knows the size of
+ * its subtree, so reading, inserting, moving or removing the layer at a position takes time
+ * logarithmic in the number of layers rather than shifting every layer after it. Each node also
+ * knows its parent, and the node of each layer is kept by identity, so the position of a layer is
+ * found by walking up from its node instead of searching the list.
+ * A layer is expected to be in the order once; while a layer is in it twice, indexOf finds the
+ * position it was placed at last.
+ */
+public class LayerOrder extends AbstractList<ILayer> {
+  private final Map<ILayer, Node> nodes = new IdentityHashMap<ILayer, Node>();
+  private final Random priorities = new Random();
+  private Node root;
+
+  /**
+   * Returns the layer at a position.
+   *
+   * @param index the position, 0 being the bottom layer.
+   * @return ILayer the layer.
+   * @throws IndexOutOfBoundsException if there is no layer at the position.
+   */
+  @Override
+  public ILayer get(int index) throws IndexOutOfBoundsException {
+    return this.node(index).layer;
+  }
+
+  /**
+   * Returns the number of layers.
+   *
+   * @return int number of layers.
+   */
+  @Override
+  public int size() {
+    return size(this.root);
+  }
+
+  /**
+   * Replaces the layer at a position.
+   *
+   * @param index the position.
+   * @param layer the layer to place there.
+   * @return ILayer the layer that was there.
+   * @throws IndexOutOfBoundsException if there is no layer at the position.
+   */
+  @Override
+  public ILayer set(int index, ILayer layer) throws IndexOutOfBoundsException {
+    Node node = this.node(index);
+    ILayer old = node.layer;
+    if (this.nodes.get(old) == node) {
+      this.nodes.remove(old);
+    }
+    node.layer = layer;
+    this.nodes.put(layer, node);
+    return old;
+  }
+
+  /**
+   * Inserts a layer at a position, moving the layers from there on up by one.
+   *
+   * @param index the position, from 0 to the number of layers.
+   * @param layer the layer to insert.
+   * @throws IndexOutOfBoundsException if the position is out of range.
+   */
+  @Override
+  public void add(int index, ILayer layer) throws IndexOutOfBoundsException {
+    if (index < 0 || index > this.size()) {
+      throw new IndexOutOfBoundsException("Position " + index + " is out of range");
+    }
+    Node node = new Node(layer, this.priorities.nextInt());
+    this.nodes.put(layer, node);
+    this.root = this.insert(node, index);
+    this.modCount++;
+  }
+
+  /**
+   * Removes the layer at a position, moving the layers after it down by one.
+   *
+   * @param index the position.
+   * @return ILayer the layer removed.
+   * @throws IndexOutOfBoundsException if there is no layer at the position.
+   */
+  @Override
+  public ILayer remove(int index) throws IndexOutOfBoundsException {
+    Node node = this.detach(index);
+    if (this.nodes.get(node.layer) == node) {
+      this.nodes.remove(node.layer);
+    }
+    this.modCount++;
+    return node.layer;
+  }
+
+  /**
+   * Moves the layer at one position to another, shifting the layers in between by one.
+   *
+   * @param from the position of the layer to move.
+   * @param to   the position the layer ends up at.
+   * @throws IndexOutOfBoundsException if either position is out of range.
+   */
+  public void move(int from, int to) throws IndexOutOfBoundsException {
+    if (to < 0 || to >= this.size()) {
+      throw new IndexOutOfBoundsException("Position " + to + " is out of range");
+    }
+    Node node = this.detach(from);
+    this.root = this.insert(node, to);
+    this.modCount++;
+  }
+
+  /**
+   * Returns the position of a layer.
+   *
+   * @param o the layer to find.
+   * @return int position of the layer, or -1 if it is not in the order.
+   */
+  @Override
+  public int indexOf(Object o) {
+    Node node = this.nodes.get(o);
+    if (node == null) {
+      return -1;
+    }
+    int index = size(node.left);
+    for (Node child = node, parent = node.parent; parent != null;
+         child = parent, parent = parent.parent) {
+      if (parent.right == child) {
+        index += size(parent.left) + 1;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Returns the position of a layer, which is in the order at most once.
+   *
+   * @param o the layer to find.
+   * @return int position of the layer, or -1 if it is not in the order.
+   */
+  @Override
+  public int lastIndexOf(Object o) {
+    return this.indexOf(o);
+  }
+
+  /**
+   * Returns whether a layer is in the order.
+   *
+   * @param o the layer to find.
+   * @return boolean true if the layer is in the order.
+   */
+  @Override
+  public boolean contains(Object o) {
+    return this.nodes.containsKey(o);
+  }
+
+  /**
+   * Removes every layer.
+   */
+  @Override
+  public void clear() {
+    this.root = null;
+    this.nodes.clear();
+    this.modCount++;
+  }
+
+  /**
+   * Returns an iterator over the layers, bottom to top, that steps from node to node rather than
+   * looking each position up from the root.
+   *
+   * @return Iterator of the layers.
+   */
+  @Override
+  public Iterator<ILayer> iterator() {
+    return new Iterator<ILayer>() {
+      private Node next = first(LayerOrder.this.root);
+      private final int expected = LayerOrder.this.modCount;
+
+      @Override
+      public boolean hasNext() {
+        return this.next != null;
+      }
+
+      @Override
+      public ILayer next() {
+        if (LayerOrder.this.modCount != this.expected) {
+          throw new ConcurrentModificationException();
+        }
+        if (this.next == null) {
+          throw new NoSuchElementException();
+        }
+        ILayer layer = this.next.layer;
+        this.next = successor(this.next);
+        return layer;
+      }
+    };
+  }
+
+  /**
+   * Returns the node at a position.
+   *
+   * @param index the position.
+   * @return Node the node.
+   * @throws IndexOutOfBoundsException if there is no node at the position.
+   */
+  private Node node(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.size()) {
+      throw new IndexOutOfBoundsException("Position " + index + " is out of range");
+    }
+    Node node = this.root;
+    while (true) {
+      int left = size(node.left);
+      if (index < left) {
+        node = node.left;
+      } else if (index == left) {
+        return node;
+      } else {
+        index -= left + 1;
+        node = node.right;
+      }
+    }
+  }
+
+  /**
+   * Inserts a node that is in no tree at a position of the tree.
+   *
+   * @param node  the node to insert.
+   * @param index the position.
+   * @return Node the new root of the tree.
+   */
+  private Node insert(Node node, int index) {
+    Node[] halves = new Node[2];
+    split(this.root, index, halves);
+    Node joined = merge(merge(halves[0], node), halves[1]);
+    joined.parent = null;
+    return joined;
+  }
+
+  /**
+   * Takes the node at a position out of the tree.
+   *
+   * @param index the position.
+   * @return Node the node, which is in no tree afterwards.
+   * @throws IndexOutOfBoundsException if there is no node at the position.
+   */
+  private Node detach(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.size()) {
+      throw new IndexOutOfBoundsException("Position " + index + " is out of range");
+    }
+    Node[] before = new Node[2];
+    split(this.root, index, before);
+    Node[] after = new Node[2];
+    split(before[1], 1, after);
+    this.root = merge(before[0], after[1]);
+    if (this.root != null) {
+      this.root.parent = null;
+    }
+    Node node = after[0];
+    node.parent = null;
+    return node;
+  }
+
+  /**
+   * Splits a tree into the nodes before a position and the nodes from it on.
+   *
+   * @param tree   the tree to split.
+   * @param index  the position to split at.
+   * @param halves the array to put the roots of the two trees into.
+   */
+  private static void split(Node tree, int index, Node[] halves) {
+    if (tree == null) {
+      halves[0] = null;
+      halves[1] = null;
+      return;
+    }
+    if (size(tree.left) >= index) {
+      split(tree.left, index, halves);
+      tree.left = halves[1];
+      halves[1] = update(tree);
+    } else {
+      split(tree.right, index - size(tree.left) - 1, halves);
+      tree.right = halves[0];
+      halves[0] = update(tree);
+    }
+    for (Node half : halves) {
+      if (half != null) {
+        half.parent = null;
+      }
+    }
+  }
+
+  /**
+   * Joins two trees, every node of the first coming before every node of the second.
+   *
+   * @param first  the first tree.
+   * @param second the second tree.
+   * @return Node the root of the joined tree.
+   */
+  private static Node merge(Node first, Node second) {
+    if (first == null) {
+      return second;
+    }
+    if (second == null) {
+      return first;
+    }
+    if (first.priority > second.priority) {
+      first.right = merge(first.right, second);
+      return update(first);
+    }
+    second.left = merge(first, second.left);
+    return update(second);
+  }
+
+  /**
+   * Brings the size of a node and the parent of its children up to date.
+   *
+   * @param node the node.
+   * @return Node the node.
+   */
+  private static Node update(Node node) {
+    node.size = 1 + size(node.left) + size(node.right);
+    if (node.left != null) {
+      node.left.parent = node;
+    }
+    if (node.right != null) {
+      node.right.parent = node;
+    }
+    return node;
+  }
+
+  /**
+   * Returns the number of nodes in a tree.
+   *
+   * @param tree the tree, or null.
+   * @return int number of nodes.
+   */
+  private static int size(Node tree) {
+    return tree == null ? 0 : tree.size;
+  }
+
+  /**
+   * Returns the first node of a tree.
+   *
+   * @param tree the tree, or null.
+   * @return Node the first node, or null if the tree is empty.
+   */
+  private static Node first(Node tree) {
+    while (tree != null && tree.left != null) {
+      tree = tree.left;
+    }
+    return tree;
+  }
+
+  /**
+   * Returns the node after a node.
+   *
+   * @param node the node.
+   * @return Node the next node, or null if it is the last.
+   */
+  private static Node successor(Node node) {
+    if (node.right != null) {
+      return first(node.right);
+    }
+    while (node.parent != null && node.parent.right == node) {
+      node = node.parent;
+    }
+    return node.parent;
+  }
+
+  /**
+   * Represents a node of the tree, holding one layer.
+   */
+  private static class Node {
+    private ILayer layer;
+    private final int priority;
+    private int size = 1;
+    private Node left;
+    private Node right;
+    private Node parent;
+
+    /**
+     * Represents a constructor for a node.
+     *
+     * @param layer    the layer held.
+     * @param priority the random priority that keeps the tree balanced.
+     */
+    Node(ILayer layer, int priority) {
+      this.layer = layer;
+      this.priority = priority;
+    }
+  }
+}
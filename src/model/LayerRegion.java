@@ -0,0 +1,310 @@
+package model;
+
+import java.awt.Rectangle;
+
+import model.filters.IFilter;
+
+/**
+ * Represents a read-only view of a rectangular region of a layer.
+ * The view behaves like a layer the size of the region, so an existing filter can be applied to
+ * just that region of the layer it wraps. Any attempt to change the view throws an
+ * UnsupportedOperationException.
+ */
+class LayerRegion implements ILayer {
+  private final ILayer layer;
+  private final Rectangle region;
+
+  /**
+   * Represents a constructor for a region of a layer.
+   *
+   * @param layer  the layer being viewed.
+   * @param region the region of the layer, with x as the first column and y as the first row.
+   */
+  LayerRegion(ILayer layer, Rectangle region) {
+    this.layer = layer;
+    this.region = new Rectangle(region);
+  }
+
+  /**
+   * Returns the height of the region.
+   *
+   * @return int height.
+   */
+  @Override
+  public int getHeight() {
+    return this.region.height;
+  }
+
+  /**
+   * Returns the width of the region.
+   *
+   * @return int width.
+   */
+  @Override
+  public int getWidth() {
+    return this.region.width;
+  }
+
+  /**
+   * Not supported, the region is read only.
+   *
+   * @param filter to be set.
+   */
+  @Override
+  public void setFilter(IFilter filter) {
+    throw new UnsupportedOperationException("Layer regions are read only");
+  }
+
+  /**
+   * Not supported, the region is read only.
+   *
+   * @param image to be added.
+   * @param x     offset.
+   * @param y     offset.
+   */
+  @Override
+  public void addImage(IImage image, int x, int y) {
+    throw new UnsupportedOperationException("Layer regions are read only");
+  }
+
+  /**
+   * Not supported, the region is read only.
+   */
+  @Override
+  public void firstLayer() {
+    throw new UnsupportedOperationException("Layer regions are read only");
+  }
+
+  /**
+   * Returns the pixels of the region.
+   *
+   * @return 2D array of pixels.
+   */
+  @Override
+  public IPixel[][] getCanvas() {
+    IPixel[][] pixels = new IPixel[this.region.height][this.region.width];
+    int[] row = new int[this.region.width];
+    for (int i = 0; i < this.region.height; i++) {
+      this.layer.readRow(this.region.y + i, this.region.x, this.region.width, row, 0);
+      for (int j = 0; j < this.region.width; j++) {
+        pixels[i][j] = new PackedPixel(row[j]);
+      }
+    }
+    return pixels;
+  }
+
+  /**
+   * Returns the name of the layer being viewed.
+   *
+   * @return String name.
+   */
+  @Override
+  public String getName() {
+    return this.layer.getName();
+  }
+
+  /**
+   * Returns a pixel of the region given an x and a y relative to the region.
+   *
+   * @param x int x coord.
+   * @param y int y coord.
+   * @return IPixel.
+   */
+  @Override
+  public IPixel getPixel(int x, int y) {
+    return new PackedPixel(this.getArgb(x, y));
+  }
+
+  /**
+   * Returns the filter of the layer being viewed.
+   *
+   * @return IFilter filter.
+   */
+  @Override
+  public IFilter getFilter() {
+    return this.layer.getFilter();
+  }
+
+  /**
+   * Not supported, the region is read only.
+   *
+   * @param canvas 2D array of pixels.
+   */
+  @Override
+  public void setCanvas(IPixel[][] canvas) {
+    throw new UnsupportedOperationException("Layer regions are read only");
+  }
+
+  /**
+   * Returns the packed ARGB value of a pixel given an x and a y relative to the region.
+   *
+   * @param x int x coord.
+   * @param y int y coord.
+   * @return int packed ARGB value.
+   */
+  @Override
+  public int getArgb(int x, int y) {
+    if (x < 0 || y < 0 || x >= this.region.height || y >= this.region.width) {
+      throw new IllegalArgumentException("Pixel must be within bounds");
+    }
+    return this.layer.getArgb(this.region.y + x, this.region.x + y);
+  }
+
+  /**
+   * Copies a span of one row of the region into the given array.
+   *
+   * @param row    the row to read from, relative to the region.
+   * @param col    the first column of the span, relative to the region.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  @Override
+  public void readRow(int row, int col, int length, int[] dst, int offset) {
+    this.layer.readRow(this.region.y + row, this.region.x + col, length, dst, offset);
+  }
+
+  /**
+   * Not supported, the region is read only.
+   *
+   * @param row    the row to write to.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param src    the array to copy from.
+   * @param offset the position in src to start reading at.
+   */
+  @Override
+  public void writeRow(int row, int col, int length, int[] src, int offset) {
+    throw new UnsupportedOperationException("Layer regions are read only");
+  }
+
+  /**
+   * Copies a span of one row of the region into the given planes.
+   *
+   * @param row    the row to read from, relative to the region.
+   * @param col    the first column of the span, relative to the region.
+   * @param length the number of pixels to copy.
+   * @param red    the red plane to copy into.
+   * @param green  the green plane to copy into.
+   * @param blue   the blue plane to copy into.
+   * @param alpha  the alpha plane to copy into.
+   * @param offset the position in the planes to start writing at.
+   */
+  @Override
+  public void readPlanes(int row, int col, int length, byte[] red, byte[] green, byte[] blue,
+                         byte[] alpha, int offset) {
+    this.layer.readPlanes(this.region.y + row, this.region.x + col, length, red, green, blue,
+            alpha, offset);
+  }
+
+  /**
+   * Copies a span of one row of the region into the given arrays as runs.
+   *
+   * @param row     the row to read from, relative to the region.
+   * @param col     the first column of the span, relative to the region.
+   * @param length  the number of pixels to read.
+   * @param lengths the array to copy the length of each run into.
+   * @param values  the array to copy the packed ARGB value of each run into.
+   * @param offset  the position in the arrays to start writing at.
+   * @return int the number of runs copied.
+   */
+  @Override
+  public int readRuns(int row, int col, int length, int[] lengths, int[] values, int offset) {
+    return this.layer.readRuns(this.region.y + row, this.region.x + col, length, lengths, values,
+            offset);
+  }
+
+  /**
+   * Returns the version of the layer being viewed.
+   *
+   * @return long version.
+   */
+  @Override
+  public long getVersion() {
+    return this.layer.getVersion();
+  }
+
+  /**
+   * Returns the storage of the layer the region is of.
+   *
+   * @return ICanvasFactory the storage of the layer.
+   */
+  @Override
+  public ICanvasFactory getStorage() {
+    return this.layer.getStorage();
+  }
+
+  /**
+   * Returns null, as regions do not cache rendered pixels.
+   *
+   * @return null.
+   */
+  @Override
+  public ICanvas getRendered() {
+    return null;
+  }
+
+  /**
+   * Not supported, the region is read only.
+   *
+   * @param rendered the rendered pixels.
+   */
+  @Override
+  public void setRendered(ICanvas rendered) {
+    throw new UnsupportedOperationException("Layer regions are read only");
+  }
+
+  /**
+   * Returns an empty region, as regions do not track changes.
+   *
+   * @return Rectangle empty region.
+   */
+  @Override
+  public Rectangle takeDirty() {
+    return new Rectangle();
+  }
+
+  /**
+   * Returns the part of the content bounds of the layer being viewed that lies in the region,
+   * relative to the region.
+   *
+   * @return Rectangle content bounds, empty if the region is blank.
+   */
+  @Override
+  public Rectangle getContentBounds() {
+    Rectangle bounds = this.layer.getContentBounds().intersection(this.region);
+    if (bounds.isEmpty()) {
+      return new Rectangle();
+    }
+    bounds.translate(-this.region.x, -this.region.y);
+    return bounds;
+  }
+
+  /**
+   * Returns whether the layer being viewed is one color throughout.
+   *
+   * @return boolean true if the region is one color throughout.
+   */
+  @Override
+  public boolean isConstant() {
+    return this.layer.isConstant();
+  }
+
+  /**
+   * Not supported, the region is read only.
+   */
+  @Override
+  public void release() {
+    throw new UnsupportedOperationException("Layer regions are read only");
+  }
+
+  /**
+   * Returns a view of the same region of a snapshot of the layer being viewed.
+   *
+   * @return ILayer the snapshot.
+   */
+  @Override
+  public ILayer snapshot() {
+    return new LayerRegion(this.layer.snapshot(), this.region);
+  }
+}
@@ -0,0 +1,181 @@
+package model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Represents a canvas stored outside of the heap, as packed ARGB values in row-major order.
+ * The pixels live in direct buffers, so even very large canvases neither count against the
+ * maximum heap size nor get copied around by the garbage collector. The rows are split over as
+ * many buffers as needed, since a single buffer holds at most 2GB.
+ * The memory is freed as soon as the canvas is released, where the running Java allows it, and
+ * otherwise once the buffers are collected.
+ */
+public class OffHeapCanvas implements ICanvas {
+  private static final int MAX_CHUNK = 1 << 28;
+  private static final Object UNSAFE;
+  private static final Method INVOKE_CLEANER;
+
+  static {
+    //sun.misc.Unsafe.invokeCleaner frees a direct buffer right away, and exists from Java 9
+    Object unsafe = null;
+    Method invokeCleaner = null;
+    try {
+      Class<?> type = Class.forName("sun.misc.Unsafe");
+      Field field = type.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      unsafe = field.get(null);
+      invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      unsafe = null;
+      invokeCleaner = null;
+    }
+    UNSAFE = unsafe;
+    INVOKE_CLEANER = invokeCleaner;
+  }
+
+  private final int height;
+  private final int width;
+  private final int rowsPerChunk;
+  private ByteBuffer[] buffers;
+  private IntBuffer[] chunks;
+
+  /**
+   * Represents a constructor for an off-heap canvas.
+   *
+   * @param height int height.
+   * @param width  int width.
+   * @param argb   the packed ARGB value every pixel starts as.
+   * @throws IllegalArgumentException if the dimensions are negative.
+   */
+  public OffHeapCanvas(int height, int width, int argb) throws IllegalArgumentException {
+    if (height < 0 || width < 0) {
+      throw new IllegalArgumentException("Canvas dimensions must be positive");
+    }
+    this.height = height;
+    this.width = width;
+    this.rowsPerChunk = Math.max(1, MAX_CHUNK / Math.max(1, width));
+    int count = (height + this.rowsPerChunk - 1) / this.rowsPerChunk;
+    this.buffers = new ByteBuffer[count];
+    this.chunks = new IntBuffer[count];
+    for (int i = 0; i < count; i++) {
+      int rows = Math.min(this.rowsPerChunk, height - i * this.rowsPerChunk);
+      this.buffers[i] = ByteBuffer.allocateDirect(rows * width * 4).order(ByteOrder.nativeOrder());
+      this.chunks[i] = this.buffers[i].asIntBuffer();
+    }
+    this.fill(argb);
+  }
+
+  /**
+   * Returns the height of the canvas.
+   *
+   * @return int height.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the width of the canvas.
+   *
+   * @return int width.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the packed ARGB value of a pixel.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return int packed ARGB value.
+   */
+  @Override
+  public int get(int row, int col) {
+    return this.chunks[row / this.rowsPerChunk]
+            .get((row % this.rowsPerChunk) * this.width + col);
+  }
+
+  /**
+   * Copies a span of one row of the canvas into the given array.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  @Override
+  public void readRow(int row, int col, int length, int[] dst, int offset) {
+    this.span(row, col).get(dst, offset, length);
+  }
+
+  /**
+   * Overwrites a span of one row of the canvas with the given values.
+   *
+   * @param row    the row to write to.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param src    the array to copy from.
+   * @param offset the position in src to start reading at.
+   */
+  @Override
+  public void writeRow(int row, int col, int length, int[] src, int offset) {
+    this.span(row, col).put(src, offset, length);
+  }
+
+  /**
+   * Sets every pixel of the canvas to the given value.
+   *
+   * @param argb the packed ARGB value.
+   */
+  @Override
+  public void fill(int argb) {
+    int[] row = new int[this.width];
+    Arrays.fill(row, argb);
+    for (int i = 0; i < this.height; i++) {
+      this.writeRow(i, 0, this.width, row, 0);
+    }
+  }
+
+  /**
+   * Frees the buffers holding the pixels. The canvas must not be used afterwards.
+   */
+  @Override
+  public void release() {
+    if (this.buffers == null) {
+      return;
+    }
+    if (INVOKE_CLEANER != null) {
+      for (ByteBuffer buffer : this.buffers) {
+        try {
+          INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+          //leave the buffer to the garbage collector
+        }
+      }
+    }
+    this.buffers = null;
+    this.chunks = null;
+  }
+
+  /**
+   * Returns a buffer positioned at a pixel, of its own so concurrent readers do not interfere.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return IntBuffer positioned at the pixel.
+   */
+  private IntBuffer span(int row, int col) {
+    IntBuffer chunk = this.chunks[row / this.rowsPerChunk].duplicate();
+    chunk.position((row % this.rowsPerChunk) * this.width + col);
+    return chunk;
+  }
+}
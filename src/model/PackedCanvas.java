@@ -0,0 +1,108 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Represents a canvas stored as one contiguous array of packed ARGB values in row-major order.
+ */
+public class PackedCanvas implements ICanvas {
+  private final int[] pixels;
+  private final int height;
+  private final int width;
+
+  /**
+   * Represents a constructor for a packed canvas.
+   *
+   * @param height int height.
+   * @param width  int width.
+   * @param argb   the packed ARGB value every pixel starts as.
+   * @throws IllegalArgumentException if the dimensions are negative.
+   */
+  public PackedCanvas(int height, int width, int argb) throws IllegalArgumentException {
+    if (height < 0 || width < 0) {
+      throw new IllegalArgumentException("Canvas dimensions must be positive");
+    }
+    this.height = height;
+    this.width = width;
+    this.pixels = new int[height * width];
+    Arrays.fill(this.pixels, argb);
+  }
+
+  /**
+   * Returns the height of the canvas.
+   *
+   * @return int height.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the width of the canvas.
+   *
+   * @return int width.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the packed ARGB value of a pixel.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return int packed ARGB value.
+   */
+  @Override
+  public int get(int row, int col) {
+    return this.pixels[row * this.width + col];
+  }
+
+  /**
+   * Copies a span of one row of the canvas into the given array.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  @Override
+  public void readRow(int row, int col, int length, int[] dst, int offset) {
+    System.arraycopy(this.pixels, row * this.width + col, dst, offset, length);
+  }
+
+  /**
+   * Overwrites a span of one row of the canvas with the given values.
+   *
+   * @param row    the row to write to.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param src    the array to copy from.
+   * @param offset the position in src to start reading at.
+   */
+  @Override
+  public void writeRow(int row, int col, int length, int[] src, int offset) {
+    System.arraycopy(src, offset, this.pixels, row * this.width + col, length);
+  }
+
+  /**
+   * Sets every pixel of the canvas to the given value.
+   *
+   * @param argb the packed ARGB value.
+   */
+  @Override
+  public void fill(int argb) {
+    Arrays.fill(this.pixels, argb);
+  }
+
+  /**
+   * Does nothing, as the canvas only holds memory on the heap.
+   */
+  @Override
+  public void release() {
+    //the garbage collector reclaims the canvas once it is unreachable
+  }
+}
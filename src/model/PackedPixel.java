@@ -0,0 +1,135 @@
+package model;
+
+/**
+ * Represents a pixel whose components are packed into a single ARGB integer.
+ * Alpha is stored in the highest byte, followed by red, green and blue.
+ * This is the representation used by a layer's pixel buffer, and instances of this class are
+ * lightweight, immutable views of single values read out of that buffer.
+ */
+public final class PackedPixel implements IPixel {
+  private final int argb;
+
+  /**
+   * Represents constructor for PackedPixel.
+   *
+   * @param argb the packed ARGB value.
+   */
+  public PackedPixel(int argb) {
+    this.argb = argb;
+  }
+
+  /**
+   * Returns the red value of the pixel.
+   *
+   * @return the red value of the pixel.
+   */
+  @Override
+  public int getRed() {
+    return red(this.argb);
+  }
+
+  /**
+   * Returns the green value of the pixel.
+   *
+   * @return the green value of the pixel.
+   */
+  @Override
+  public int getGreen() {
+    return green(this.argb);
+  }
+
+  /**
+   * Returns the blue value of the pixel.
+   *
+   * @return the blue value of the pixel.
+   */
+  @Override
+  public int getBlue() {
+    return blue(this.argb);
+  }
+
+  /**
+   * Returns the alpha value of the pixel.
+   *
+   * @return the alpha value of the pixel.
+   */
+  @Override
+  public int getAlpha() {
+    return alpha(this.argb);
+  }
+
+  /**
+   * Returns the packed ARGB value of the pixel.
+   *
+   * @return int packed ARGB value.
+   */
+  public int getArgb() {
+    return this.argb;
+  }
+
+  /**
+   * Packs the given components into an ARGB integer. Components are expected to be in 0 to 255.
+   *
+   * @param red   value.
+   * @param green value.
+   * @param blue  value.
+   * @param alpha value.
+   * @return int packed ARGB value.
+   */
+  public static int pack(int red, int green, int blue, int alpha) {
+    return (alpha << 24) | (red << 16) | (green << 8) | blue;
+  }
+
+  /**
+   * Packs the given pixel into an ARGB integer.
+   *
+   * @param pixel to be packed.
+   * @return int packed ARGB value.
+   */
+  public static int pack(IPixel pixel) {
+    if (pixel instanceof PackedPixel) {
+      return ((PackedPixel) pixel).argb;
+    }
+    return pack(pixel.getRed(), pixel.getGreen(), pixel.getBlue(), pixel.getAlpha());
+  }
+
+  /**
+   * Returns the red component of a packed ARGB value.
+   *
+   * @param argb packed value.
+   * @return int red value.
+   */
+  public static int red(int argb) {
+    return (argb >> 16) & 0xFF;
+  }
+
+  /**
+   * Returns the green component of a packed ARGB value.
+   *
+   * @param argb packed value.
+   * @return int green value.
+   */
+  public static int green(int argb) {
+    return (argb >> 8) & 0xFF;
+  }
+
+  /**
+   * Returns the blue component of a packed ARGB value.
+   *
+   * @param argb packed value.
+   * @return int blue value.
+   */
+  public static int blue(int argb) {
+    return argb & 0xFF;
+  }
+
+  /**
+   * Returns the alpha component of a packed ARGB value.
+   *
+   * @param argb packed value.
+   * @return int alpha value.
+   */
+  public static int alpha(int argb) {
+    return argb >>> 24;
+  }
+}
@@ -0,0 +1,211 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Represents a canvas stored as four separate planes, one byte per pixel for each of the red,
+ * green, blue and alpha channels, each in row-major order.
+ * Filters that work on one channel at a time, or on every channel the same way, get long runs of
+ * the same kind of value to work through, which is what compilers vectorize well.
+ * The static pack and unpack methods convert spans between planes and packed ARGB values.
+ */
+public class PlanarCanvas implements ICanvas {
+  private final byte[] red;
+  private final byte[] green;
+  private final byte[] blue;
+  private final byte[] alpha;
+  private final int height;
+  private final int width;
+
+  /**
+   * Represents a constructor for a planar canvas.
+   *
+   * @param height int height.
+   * @param width  int width.
+   * @param argb   the packed ARGB value every pixel starts as.
+   * @throws IllegalArgumentException if the dimensions are negative.
+   */
+  public PlanarCanvas(int height, int width, int argb) throws IllegalArgumentException {
+    if (height < 0 || width < 0) {
+      throw new IllegalArgumentException("Canvas dimensions must be positive");
+    }
+    this.height = height;
+    this.width = width;
+    this.red = new byte[height * width];
+    this.green = new byte[height * width];
+    this.blue = new byte[height * width];
+    this.alpha = new byte[height * width];
+    this.fill(argb);
+  }
+
+  /**
+   * Returns the height of the canvas.
+   *
+   * @return int height.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the width of the canvas.
+   *
+   * @return int width.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the packed ARGB value of a pixel.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return int packed ARGB value.
+   */
+  @Override
+  public int get(int row, int col) {
+    int index = row * this.width + col;
+    return (this.alpha[index] & 0xff) << 24 | (this.red[index] & 0xff) << 16
+            | (this.green[index] & 0xff) << 8 | (this.blue[index] & 0xff);
+  }
+
+  /**
+   * Copies a span of one row of the canvas into the given array as packed ARGB values.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  @Override
+  public void readRow(int row, int col, int length, int[] dst, int offset) {
+    pack(this.red, this.green, this.blue, this.alpha, row * this.width + col,
+            dst, offset, length);
+  }
+
+  /**
+   * Overwrites a span of one row of the canvas with the given packed ARGB values.
+   *
+   * @param row    the row to write to.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param src    the array to copy from.
+   * @param offset the position in src to start reading at.
+   */
+  @Override
+  public void writeRow(int row, int col, int length, int[] src, int offset) {
+    unpack(src, offset, this.red, this.green, this.blue, this.alpha, row * this.width + col,
+            length);
+  }
+
+  /**
+   * Copies a span of one row of each plane of the canvas into the given planes.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param red    the red plane to copy into.
+   * @param green  the green plane to copy into.
+   * @param blue   the blue plane to copy into.
+   * @param alpha  the alpha plane to copy into.
+   * @param offset the position in the planes to start writing at.
+   */
+  public void readPlanes(int row, int col, int length, byte[] red, byte[] green, byte[] blue,
+                         byte[] alpha, int offset) {
+    int start = row * this.width + col;
+    System.arraycopy(this.red, start, red, offset, length);
+    System.arraycopy(this.green, start, green, offset, length);
+    System.arraycopy(this.blue, start, blue, offset, length);
+    System.arraycopy(this.alpha, start, alpha, offset, length);
+  }
+
+  /**
+   * Overwrites a span of one row of each plane of the canvas with the given planes.
+   *
+   * @param row    the row to write to.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param red    the red plane to copy from.
+   * @param green  the green plane to copy from.
+   * @param blue   the blue plane to copy from.
+   * @param alpha  the alpha plane to copy from.
+   * @param offset the position in the planes to start reading at.
+   */
+  public void writePlanes(int row, int col, int length, byte[] red, byte[] green, byte[] blue,
+                          byte[] alpha, int offset) {
+    int start = row * this.width + col;
+    System.arraycopy(red, offset, this.red, start, length);
+    System.arraycopy(green, offset, this.green, start, length);
+    System.arraycopy(blue, offset, this.blue, start, length);
+    System.arraycopy(alpha, offset, this.alpha, start, length);
+  }
+
+  /**
+   * Sets every pixel of the canvas to the given value.
+   *
+   * @param argb the packed ARGB value.
+   */
+  @Override
+  public void fill(int argb) {
+    Arrays.fill(this.red, (byte) (argb >>> 16));
+    Arrays.fill(this.green, (byte) (argb >>> 8));
+    Arrays.fill(this.blue, (byte) argb);
+    Arrays.fill(this.alpha, (byte) (argb >>> 24));
+  }
+
+  /**
+   * Does nothing, as the canvas only holds memory on the heap.
+   */
+  @Override
+  public void release() {
+    //the garbage collector reclaims the canvas once it is unreachable
+  }
+
+  /**
+   * Splits a span of packed ARGB values into planes.
+   *
+   * @param src         the packed ARGB values.
+   * @param srcOffset   the position in src the span starts at.
+   * @param red         the red plane to write into.
+   * @param green       the green plane to write into.
+   * @param blue        the blue plane to write into.
+   * @param alpha       the alpha plane to write into.
+   * @param planeOffset the position in the planes to start writing at.
+   * @param length      the number of pixels in the span.
+   */
+  public static void unpack(int[] src, int srcOffset, byte[] red, byte[] green, byte[] blue,
+                            byte[] alpha, int planeOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      int argb = src[srcOffset + i];
+      red[planeOffset + i] = (byte) (argb >>> 16);
+      green[planeOffset + i] = (byte) (argb >>> 8);
+      blue[planeOffset + i] = (byte) argb;
+      alpha[planeOffset + i] = (byte) (argb >>> 24);
+    }
+  }
+
+  /**
+   * Joins a span of planes into packed ARGB values.
+   *
+   * @param red         the red plane.
+   * @param green       the green plane.
+   * @param blue        the blue plane.
+   * @param alpha       the alpha plane.
+   * @param planeOffset the position in the planes the span starts at.
+   * @param dst         the array to write the packed ARGB values into.
+   * @param dstOffset   the position in dst to start writing at.
+   * @param length      the number of pixels in the span.
+   */
+  public static void pack(byte[] red, byte[] green, byte[] blue, byte[] alpha, int planeOffset,
+                          int[] dst, int dstOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      int index = planeOffset + i;
+      dst[dstOffset + i] = (alpha[index] & 0xff) << 24 | (red[index] & 0xff) << 16
+              | (green[index] & 0xff) << 8 | (blue[index] & 0xff);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package model;
+
+/**
+ * Represents the arithmetic of compositing packed ARGB values with premultiplied alpha.
+ * Premultiplied values hold each color channel already scaled by the pixel's alpha, so placing
+ * one pixel over another only takes a multiply and an add per channel. Every channel stays an
+ * 8-bit integer throughout; dividing by 255 is done by shifting, and turning a premultiplied value
+ * back into a straight one multiplies by a reciprocal from a table built once, so no pixel is
+ * ever divided.
+ */
+public final class Premultiplied {
+  private static final int TRANSPARENT_WHITE = PackedPixel.pack(255, 255, 255, 0);
+  //16.16 fixed point reciprocals of alpha / 255, for every alpha but 0
+  private static final int[] RECIPROCALS = new int[256];
+
+  static {
+    for (int a = 1; a < 256; a++) {
+      RECIPROCALS[a] = (255 * 65536 + a / 2) / a;
+    }
+  }
+
+  /**
+   * Represents a constructor that is never used, as the class only holds static methods.
+   */
+  private Premultiplied() {
+  }
+
+  /**
+   * Returns the given value divided by 255, rounded to the nearest integer.
+   *
+   * @param value a value from 0 to 255 * 255.
+   * @return int the value divided by 255.
+   */
+  public static int div255(int value) {
+    int rounded = value + 128;
+    return (rounded + (rounded >> 8)) >> 8;
+  }
+
+  /**
+   * Returns a straight packed ARGB value with its color channels scaled by its alpha.
+   *
+   * @param argb the straight packed ARGB value.
+   * @return int the premultiplied value.
+   */
+  public static int premultiply(int argb) {
+    int a = argb >>> 24;
+    if (a == 255) {
+      return argb;
+    }
+    if (a == 0) {
+      return 0;
+    }
+    return a << 24 | div255((argb >> 16 & 0xff) * a) << 16 | div255((argb >> 8 & 0xff) * a) << 8
+            | div255((argb & 0xff) * a);
+  }
+
+  /**
+   * Returns a straight packed ARGB value placed over a premultiplied one, as a premultiplied
+   * value. Fully opaque and fully transparent values are passed through untouched.
+   *
+   * @param src the straight packed ARGB value placed on top.
+   * @param dst the premultiplied value below.
+   * @return int the premultiplied result.
+   */
+  public static int over(int src, int dst) {
+    int a = src >>> 24;
+    if (a == 255) {
+      return src;
+    }
+    if (a == 0) {
+      return dst;
+    }
+    int rest = 255 - a;
+    int alpha = a + div255((dst >>> 24) * rest);
+    int red = div255((src >> 16 & 0xff) * a) + div255((dst >> 16 & 0xff) * rest);
+    int green = div255((src >> 8 & 0xff) * a) + div255((dst >> 8 & 0xff) * rest);
+    int blue = div255((src & 0xff) * a) + div255((dst & 0xff) * rest);
+    return alpha << 24 | red << 16 | green << 8 | blue;
+  }
+
+  /**
+   * Returns the color channels of two straight packed ARGB values mixed in the given proportion,
+   * with the alpha of the first.
+   *
+   * @param from   the straight packed ARGB value mixed from.
+   * @param to     the straight packed ARGB value mixed towards.
+   * @param weight how much of the second value to take, from 0 to 255.
+   * @return int the mixed value.
+   */
+  public static int mix(int from, int to, int weight) {
+    int rest = 255 - weight;
+    int red = div255((from >> 16 & 0xff) * rest + (to >> 16 & 0xff) * weight);
+    int green = div255((from >> 8 & 0xff) * rest + (to >> 8 & 0xff) * weight);
+    int blue = div255((from & 0xff) * rest + (to & 0xff) * weight);
+    return (from & 0xff000000) | red << 16 | green << 8 | blue;
+  }
+
+  /**
+   * Returns a premultiplied value as a straight packed ARGB value. A fully transparent value has
+   * no color left, so it comes out as the transparent white that blank layers start as.
+   *
+   * @param premultiplied the premultiplied value.
+   * @return int the straight packed ARGB value.
+   */
+  public static int unpremultiply(int premultiplied) {
+    int a = premultiplied >>> 24;
+    if (a == 255) {
+      return premultiplied;
+    }
+    if (a == 0) {
+      return TRANSPARENT_WHITE;
+    }
+    int reciprocal = RECIPROCALS[a];
+    int red = Math.min(255, ((premultiplied >> 16 & 0xff) * reciprocal + 0x8000) >>> 16);
+    int green = Math.min(255, ((premultiplied >> 8 & 0xff) * reciprocal + 0x8000) >>> 16);
+    int blue = Math.min(255, ((premultiplied & 0xff) * reciprocal + 0x8000) >>> 16);
+    return a << 24 | red << 16 | green << 8 | blue;
+  }
+}
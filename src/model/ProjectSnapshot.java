@@ -0,0 +1,252 @@
+package model;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import model.filters.LookupTables;
+
+/**
+ * Represents a read only snapshot of a project, taken by the model.
+ * The snapshot holds a snapshot of every layer, which shares the layer's pixels instead of
+ * copying them, so taking one costs a few objects per layer. Nothing the model does afterwards
+ * changes it, so it can be rendered and saved on another thread while the project is edited.
+ * The snapshot renders with a compositor of its own; renders of one snapshot run one at a time.
+ */
+public class ProjectSnapshot implements IProjectSnapshot {
+  private final long version;
+  private final int height;
+  private final int width;
+  private final int maxValue;
+  private final List<ILayer> layers;
+  private final Map<String, Integer> positions = new HashMap<String, Integer>();
+  private final List<ILayer> sources;
+  private final long[] versions;
+  private final Compositor compositor;
+
+  /**
+   * Represents a constructor for a snapshot of a project.
+   *
+   * @param version  the version of the snapshot.
+   * @param height   int height of the project.
+   * @param width    int width of the project.
+   * @param maxValue int max value of the project.
+   * @param layers   the layers of the project, in the order they are applied.
+   * @param pool     the pool to render on, or null to render on the calling thread.
+   * @param tables   the lookup tables to compile filters into, or null to apply them as they are.
+   */
+  ProjectSnapshot(long version, int height, int width, int maxValue, List<ILayer> layers,
+                  ForkJoinPool pool, LookupTables tables) {
+    this.version = version;
+    this.height = height;
+    this.width = width;
+    this.maxValue = maxValue;
+    List<ILayer> copies = new ArrayList<ILayer>(layers.size());
+    this.versions = new long[layers.size()];
+    for (int x = 0; x < layers.size(); x++) {
+      copies.add(layers.get(x).snapshot());
+      this.versions[x] = layers.get(x).getVersion();
+      this.positions.put(layers.get(x).getName(), x);
+    }
+    this.layers = Collections.unmodifiableList(copies);
+    this.sources = new ArrayList<ILayer>(layers);
+    this.compositor = new Compositor(pool);
+    this.compositor.setLookupTables(tables);
+  }
+
+  /**
+   * Returns whether the snapshot still matches a project, so no new snapshot is needed.
+   *
+   * @param layers   the layers of the project.
+   * @param height   int height of the project.
+   * @param width    int width of the project.
+   * @param maxValue int max value of the project.
+   * @return boolean true if nothing changed since the snapshot was taken.
+   */
+  boolean matches(List<ILayer> layers, int height, int width, int maxValue) {
+    if (this.height != height || this.width != width || this.maxValue != maxValue
+            || !this.sources.equals(layers)) {
+      return false;
+    }
+    for (int x = 0; x < layers.size(); x++) {
+      if (layers.get(x).getVersion() != this.versions[x]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * This method will return the version of the snapshot.
+   *
+   * @return long version.
+   */
+  @Override
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * This method gets the height of the image.
+   *
+   * @return int height.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * This method gets the width of the image.
+   *
+   * @return int width.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * This method gets the max value of the image.
+   *
+   * @return int max value.
+   */
+  @Override
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+
+  /**
+   * This method gets the layer of the snapshot with the given name.
+   *
+   * @param string name of the layer.
+   * @return ILayer the snapshot of the layer.
+   * @throws IllegalArgumentException if the layer does not exist.
+   */
+  @Override
+  public ILayer getLayer(String string) throws IllegalArgumentException {
+    return this.layers.get(this.getLayerPosition(string));
+  }
+
+  /**
+   * This method gets the numbered layer of the snapshot.
+   *
+   * @param num int layer number.
+   * @return ILayer the snapshot of the layer.
+   * @throws IllegalArgumentException if the layer does not exist.
+   */
+  @Override
+  public ILayer getLayer(int num) throws IllegalArgumentException {
+    if (num < 0 || num >= this.layers.size()) {
+      throw new IllegalArgumentException("The layer does not exist.");
+    }
+    return this.layers.get(num);
+  }
+
+  /**
+   * This method will return all the layers of the snapshot, as a list that cannot be modified.
+   *
+   * @return list of Layers.
+   */
+  @Override
+  public List<ILayer> getLayers() {
+    return this.layers;
+  }
+
+  /**
+   * This method will return a map of all layers of the snapshot. The map is a copy, so modifying
+   * it does not change the snapshot.
+   *
+   * @return map of Layers by name.
+   */
+  @Override
+  public HashMap<String, ILayer> getMapLayers() {
+    HashMap<String, ILayer> map = new HashMap<String, ILayer>();
+    for (ILayer layer : this.layers) {
+      map.put(layer.getName(), layer);
+    }
+    return map;
+  }
+
+  /**
+   * This method will return the position of a layer in the snapshot given its name.
+   *
+   * @param name name of layer.
+   * @return int position of layer.
+   * @throws IllegalArgumentException if the layer does not exist.
+   */
+  @Override
+  public int getLayerPosition(String name) throws IllegalArgumentException {
+    Integer position = this.positions.get(name);
+    if (position == null) {
+      throw new IllegalArgumentException("The layer does not exist.");
+    }
+    return position;
+  }
+
+  /**
+   * This method will return the names of the layers of the snapshot, bottom to top.
+   *
+   * @return String list of layers.
+   */
+  @Override
+  public String listLayers() {
+    List<String> names = new ArrayList<String>(this.layers.size());
+    for (ILayer layer : this.layers) {
+      names.add(layer.getName());
+    }
+    return String.join(",", names);
+  }
+
+  /**
+   * This method will return the number of layers in the snapshot.
+   *
+   * @return int number of layers.
+   */
+  @Override
+  public int getLayerCount() {
+    return this.layers.size();
+  }
+
+  /**
+   * This method will produce the final canvas for all layers of the snapshot for PPM.
+   *
+   * @return IPixel[][] finalPixels.
+   */
+  @Override
+  public synchronized IPixel[][] saveCanvas() {
+    int[] composite = new int[this.height * this.width];
+    this.compositor.render(this.layers, this.height, this.width, composite);
+    IPixel[][] finalPixels = new IPixel[this.height][this.width];
+    for (int i = 0; i < this.height; i++) {
+      for (int j = 0; j < this.width; j++) {
+        finalPixels[i][j] = new PackedPixel(composite[i * this.width + j]);
+      }
+    }
+    return finalPixels;
+  }
+
+  /**
+   * This method will return a BufferedImage of the final canvas of the snapshot.
+   *
+   * @return BufferedImage the image.
+   */
+  @Override
+  public synchronized BufferedImage compressImage() {
+    int[] frame = new int[this.height * this.width];
+    this.compositor.render(this.layers, this.height, this.width, frame);
+    DirectColorModel argb = (DirectColorModel) ColorModel.getRGBdefault();
+    WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(frame, frame.length),
+            this.width, this.height, this.width, argb.getMasks(), null);
+    return new BufferedImage(argb, raster, false, null);
+  }
+}
@@ -0,0 +1,315 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Represents a canvas stored one row at a time as runs of identical packed ARGB values.
+ * Each row that has been written keeps the column each run ends at and the value of the run, so
+ * a row costs two ints per run rather than one per pixel, and rows that were never written cost
+ * nothing at all. Layers that are mostly blank, with a logo or a caption placed on them, take a
+ * fraction of the memory of a dense canvas, and can be read and filtered a run at a time.
+ * The static encode method turns a span of packed ARGB values into runs.
+ */
+public class RunCanvas implements ICanvas {
+  private final int[][] ends;
+  private final int[][] values;
+  private final int height;
+  private final int width;
+  private int blank;
+
+  /**
+   * Represents a constructor for a run-length encoded canvas.
+   *
+   * @param height int height.
+   * @param width  int width.
+   * @param argb   the packed ARGB value every pixel starts as.
+   * @throws IllegalArgumentException if the dimensions are negative.
+   */
+  public RunCanvas(int height, int width, int argb) throws IllegalArgumentException {
+    if (height < 0 || width < 0) {
+      throw new IllegalArgumentException("Canvas dimensions must be positive");
+    }
+    this.height = height;
+    this.width = width;
+    this.ends = new int[height][];
+    this.values = new int[height][];
+    this.blank = argb;
+  }
+
+  /**
+   * Returns the height of the canvas.
+   *
+   * @return int height.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the width of the canvas.
+   *
+   * @return int width.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the packed ARGB value of a pixel.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return int packed ARGB value.
+   */
+  @Override
+  public int get(int row, int col) {
+    if (this.ends[row] == null) {
+      return this.blank;
+    }
+    return this.values[row][find(this.ends[row], col)];
+  }
+
+  /**
+   * Copies a span of one row of the canvas into the given array, a run at a time.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  @Override
+  public void readRow(int row, int col, int length, int[] dst, int offset) {
+    if (this.ends[row] == null) {
+      Arrays.fill(dst, offset, offset + length, this.blank);
+      return;
+    }
+    int[] rowEnds = this.ends[row];
+    int[] rowValues = this.values[row];
+    int end = col + length;
+    for (int k = find(rowEnds, col), start = col; start < end; k++) {
+      int stop = Math.min(rowEnds[k], end);
+      Arrays.fill(dst, offset + start - col, offset + stop - col, rowValues[k]);
+      start = stop;
+    }
+  }
+
+  /**
+   * Copies the runs of a span of one row of the canvas into the given arrays. The first and last
+   * runs are cut to the span, so the lengths add up to the length of the span. The arrays must
+   * have room for as many runs as there are pixels in the span.
+   *
+   * @param row     the row to read from.
+   * @param col     the first column of the span.
+   * @param length  the number of pixels to read.
+   * @param lengths the array to copy the length of each run into.
+   * @param values  the array to copy the packed ARGB value of each run into.
+   * @param offset  the position in the arrays to start writing at.
+   * @return int the number of runs copied.
+   */
+  public int readRuns(int row, int col, int length, int[] lengths, int[] values, int offset) {
+    if (length <= 0) {
+      return 0;
+    }
+    if (this.ends[row] == null) {
+      lengths[offset] = length;
+      values[offset] = this.blank;
+      return 1;
+    }
+    int[] rowEnds = this.ends[row];
+    int[] rowValues = this.values[row];
+    int end = col + length;
+    int count = 0;
+    for (int k = find(rowEnds, col), start = col; start < end; k++) {
+      int stop = Math.min(rowEnds[k], end);
+      lengths[offset + count] = stop - start;
+      values[offset + count] = rowValues[k];
+      count++;
+      start = stop;
+    }
+    return count;
+  }
+
+  /**
+   * Overwrites a span of one row of the canvas with the given values, encoding them into runs.
+   *
+   * @param row    the row to write to.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param src    the array to copy from.
+   * @param offset the position in src to start reading at.
+   */
+  @Override
+  public void writeRow(int row, int col, int length, int[] src, int offset) {
+    if (length <= 0) {
+      return;
+    }
+    int count = 1;
+    for (int i = offset + 1; i < offset + length; i++) {
+      if (src[i] != src[i - 1]) {
+        count++;
+      }
+    }
+    int[] lengths = new int[count];
+    int[] runs = new int[count];
+    encode(src, offset, length, lengths, runs, 0);
+    this.writeRuns(row, col, count, lengths, runs, 0);
+  }
+
+  /**
+   * Overwrites a span of one row of the canvas with the given runs. The span starts at the given
+   * column and is as long as the lengths of the runs add up to.
+   *
+   * @param row     the row to write to.
+   * @param col     the first column of the span.
+   * @param count   the number of runs to copy.
+   * @param lengths the array to copy the length of each run from.
+   * @param values  the array to copy the packed ARGB value of each run from.
+   * @param offset  the position in the arrays to start reading at.
+   */
+  public void writeRuns(int row, int col, int count, int[] lengths, int[] values, int offset) {
+    int end = col;
+    for (int k = offset; k < offset + count; k++) {
+      end += lengths[k];
+    }
+    if (end == col) {
+      return;
+    }
+    int[] oldEnds = this.ends[row] == null ? new int[] {this.width} : this.ends[row];
+    int[] oldValues = this.values[row] == null ? new int[] {this.blank} : this.values[row];
+    //the runs before the span, the runs written, and the runs after it, cut to fit around it
+    int first = find(oldEnds, col);
+    int last = end < this.width ? find(oldEnds, end) : oldEnds.length;
+    int capacity = first + 1 + count + oldEnds.length - last;
+    int[] newEnds = new int[capacity];
+    int[] newValues = new int[capacity];
+    int size = 0;
+    for (int k = 0; k < first; k++) {
+      size = append(newEnds, newValues, size, oldEnds[k], oldValues[k]);
+    }
+    if (col > (first == 0 ? 0 : oldEnds[first - 1])) {
+      size = append(newEnds, newValues, size, col, oldValues[first]);
+    }
+    int stop = col;
+    for (int k = offset; k < offset + count; k++) {
+      if (lengths[k] > 0) {
+        stop += lengths[k];
+        size = append(newEnds, newValues, size, stop, values[k]);
+      }
+    }
+    for (int k = last; k < oldEnds.length; k++) {
+      size = append(newEnds, newValues, size, oldEnds[k], oldValues[k]);
+    }
+
+    if (size == 1 && newValues[0] == this.blank) {
+      this.ends[row] = null;
+      this.values[row] = null;
+    } else {
+      this.ends[row] = size == capacity ? newEnds : Arrays.copyOf(newEnds, size);
+      this.values[row] = size == capacity ? newValues : Arrays.copyOf(newValues, size);
+    }
+  }
+
+  /**
+   * Returns the number of runs one row of the canvas is stored as.
+   *
+   * @param row the row.
+   * @return int number of runs.
+   */
+  public int runs(int row) {
+    return this.ends[row] == null ? 1 : this.ends[row].length;
+  }
+
+  /**
+   * Sets every pixel of the canvas to the given value, dropping every run.
+   *
+   * @param argb the packed ARGB value.
+   */
+  @Override
+  public void fill(int argb) {
+    Arrays.fill(this.ends, null);
+    Arrays.fill(this.values, null);
+    this.blank = argb;
+  }
+
+  /**
+   * Does nothing, as the canvas only holds memory on the heap.
+   */
+  @Override
+  public void release() {
+    //the garbage collector reclaims the canvas once it is unreachable
+  }
+
+  /**
+   * Encodes a span of packed ARGB values into runs of identical values. The runs may be written
+   * over the span itself, as a run is never written past the values it was read from.
+   *
+   * @param src       the array to encode.
+   * @param srcOffset the position in src to start reading at.
+   * @param length    the number of values to encode.
+   * @param lengths   the array to write the length of each run into.
+   * @param values    the array to write the packed ARGB value of each run into.
+   * @param offset    the position in the arrays to start writing at.
+   * @return int the number of runs written.
+   */
+  public static int encode(int[] src, int srcOffset, int length, int[] lengths, int[] values,
+                           int offset) {
+    int count = 0;
+    int i = srcOffset;
+    while (i < srcOffset + length) {
+      int value = src[i];
+      int start = i;
+      while (i < srcOffset + length && src[i] == value) {
+        i++;
+      }
+      lengths[offset + count] = i - start;
+      values[offset + count] = value;
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Returns the position of the run a column is in.
+   *
+   * @param ends the column each run of a row ends at.
+   * @param col  the column.
+   * @return int the position of the first run ending after the column.
+   */
+  private static int find(int[] ends, int col) {
+    int low = 0;
+    int high = ends.length - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (ends[middle] <= col) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Adds a run to the end of a row being built, merging it into the last run if they share a
+   * value.
+   *
+   * @param ends   the column each run of the row ends at.
+   * @param values the value of each run of the row.
+   * @param size   the number of runs in the row so far.
+   * @param end    the column the run ends at.
+   * @param value  the value of the run.
+   * @return int the number of runs in the row afterwards.
+   */
+  private static int append(int[] ends, int[] values, int size, int end, int value) {
+    if (size > 0 && values[size - 1] == value) {
+      ends[size - 1] = end;
+      return size;
+    }
+    ends[size] = end;
+    values[size] = value;
+    return size + 1;
+  }
+}
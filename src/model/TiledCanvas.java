@@ -0,0 +1,275 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents a canvas split into square tiles of packed ARGB values, with copy-on-write tiles.
+ * Every tile starts out as a shared, immutable tile of the fill value, so a blank canvas only
+ * costs a reference per tile no matter how large it is. The first write to a tile gives the
+ * canvas its own copy of that tile, so writes only ever copy the tiles they touch, and a write
+ * of the values a shared tile already holds copies nothing.
+ */
+public class TiledCanvas implements ICanvas {
+  public static final int DEFAULT_TILE_SIZE = 128;
+  //blank tiles are never written to, so one per size and value is shared by every canvas
+  private static final Map<Long, int[]> BLANK_TILES = new ConcurrentHashMap<Long, int[]>();
+
+  private final int height;
+  private final int width;
+  private final int shift;
+  private final int mask;
+  private final int columns;
+  private final int[][] tiles;
+  private final boolean[] owned;
+
+  /**
+   * Represents a constructor for a tiled canvas with the default tile size.
+   *
+   * @param height int height.
+   * @param width  int width.
+   * @param argb   the packed ARGB value every pixel starts as.
+   * @throws IllegalArgumentException if the dimensions are negative.
+   */
+  public TiledCanvas(int height, int width, int argb) throws IllegalArgumentException {
+    this(height, width, argb, DEFAULT_TILE_SIZE);
+  }
+
+  /**
+   * Represents a constructor for a tiled canvas.
+   *
+   * @param height   int height.
+   * @param width    int width.
+   * @param argb     the packed ARGB value every pixel starts as.
+   * @param tileSize the width and height of a tile, a power of two.
+   * @throws IllegalArgumentException if the dimensions are negative or the tile size is not a
+   *                                  power of two.
+   */
+  public TiledCanvas(int height, int width, int argb, int tileSize)
+          throws IllegalArgumentException {
+    if (height < 0 || width < 0) {
+      throw new IllegalArgumentException("Canvas dimensions must be positive");
+    }
+    if (tileSize <= 0 || Integer.bitCount(tileSize) != 1) {
+      throw new IllegalArgumentException("Tile size must be a power of two");
+    }
+    this.height = height;
+    this.width = width;
+    this.shift = Integer.numberOfTrailingZeros(tileSize);
+    this.mask = tileSize - 1;
+    this.columns = (width + this.mask) >> this.shift;
+    int rows = (height + this.mask) >> this.shift;
+    this.tiles = new int[rows * this.columns][];
+    this.owned = new boolean[this.tiles.length];
+    this.fill(argb);
+  }
+
+  /**
+   * Represents a constructor for a copy of a tiled canvas, sharing every tile with it.
+   *
+   * @param canvas the canvas to copy.
+   */
+  private TiledCanvas(TiledCanvas canvas) {
+    this.height = canvas.height;
+    this.width = canvas.width;
+    this.shift = canvas.shift;
+    this.mask = canvas.mask;
+    this.columns = canvas.columns;
+    this.tiles = canvas.tiles.clone();
+    this.owned = new boolean[this.tiles.length];
+  }
+
+  /**
+   * Returns a copy of the canvas that shares its tiles instead of copying them. The copy never
+   * writes to the canvas's tiles; it copies a tile the first time it writes to it, like any tile
+   * it does not own. The canvas itself must not be written to afterwards.
+   *
+   * @return TiledCanvas the copy.
+   */
+  public TiledCanvas share() {
+    return new TiledCanvas(this);
+  }
+
+  /**
+   * Returns the height of the canvas.
+   *
+   * @return int height.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the width of the canvas.
+   *
+   * @return int width.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the width and height of a tile.
+   *
+   * @return int tile size.
+   */
+  public int getTileSize() {
+    return this.mask + 1;
+  }
+
+  /**
+   * Returns the packed ARGB value of a pixel.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return int packed ARGB value.
+   */
+  @Override
+  public int get(int row, int col) {
+    return this.tiles[this.tile(row, col)][this.index(row, col)];
+  }
+
+  /**
+   * Copies a span of one row of the canvas into the given array, one tile at a time.
+   *
+   * @param row    the row to read from.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param dst    the array to copy into.
+   * @param offset the position in dst to start writing at.
+   */
+  @Override
+  public void readRow(int row, int col, int length, int[] dst, int offset) {
+    while (length > 0) {
+      int span = Math.min(length, this.mask + 1 - (col & this.mask));
+      System.arraycopy(this.tiles[this.tile(row, col)], this.index(row, col), dst, offset, span);
+      col += span;
+      offset += span;
+      length -= span;
+    }
+  }
+
+  /**
+   * Overwrites a span of one row of the canvas with the given values, copying any shared tile
+   * the span touches first, unless the tile already holds those values. Rows of the same tile may
+   * be written from different threads, so a tile is only ever copied once.
+   *
+   * @param row    the row to write to.
+   * @param col    the first column of the span.
+   * @param length the number of pixels to copy.
+   * @param src    the array to copy from.
+   * @param offset the position in src to start reading at.
+   */
+  @Override
+  public void writeRow(int row, int col, int length, int[] src, int offset) {
+    while (length > 0) {
+      int span = Math.min(length, this.mask + 1 - (col & this.mask));
+      int index = this.index(row, col);
+      int[] tile = this.writable(this.tile(row, col), index, src, offset, span);
+      if (tile != null) {
+        System.arraycopy(src, offset, tile, index, span);
+      }
+      col += span;
+      offset += span;
+      length -= span;
+    }
+  }
+
+  /**
+   * Sets every pixel of the canvas to the given value, by sharing one blank tile again.
+   *
+   * @param argb the packed ARGB value.
+   */
+  @Override
+  public void fill(int argb) {
+    Arrays.fill(this.tiles, blankTile(this.mask + 1, argb));
+    Arrays.fill(this.owned, false);
+  }
+
+  /**
+   * Does nothing, as the canvas only holds memory on the heap.
+   */
+  @Override
+  public void release() {
+    //the garbage collector reclaims the canvas once it is unreachable
+  }
+
+  /**
+   * Returns the number of tiles the canvas has its own copy of.
+   *
+   * @return int number of written tiles.
+   */
+  int ownedTiles() {
+    int count = 0;
+    for (boolean tile : this.owned) {
+      if (tile) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns a tile the canvas owns to write a span to, copying it first if it is shared. Threads
+   * writing to different rows of a tile all get the same copy.
+   *
+   * @param tile   the position of the tile.
+   * @param index  the position of the span within the tile.
+   * @param src    the values to be written.
+   * @param offset the position of the values in src.
+   * @param length the number of values.
+   * @return int[] the tile, which may be written to, or null if the tile is shared and already
+   *               holds the values, so it stays shared.
+   */
+  private synchronized int[] writable(int tile, int index, int[] src, int offset, int length) {
+    if (!this.owned[tile]) {
+      if (Arrays.equals(this.tiles[tile], index, index + length, src, offset, offset + length)) {
+        return null;
+      }
+      this.tiles[tile] = this.tiles[tile].clone();
+      this.owned[tile] = true;
+    }
+    return this.tiles[tile];
+  }
+
+  /**
+   * Returns the position of the tile holding a pixel.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return int tile position.
+   */
+  private int tile(int row, int col) {
+    return (row >> this.shift) * this.columns + (col >> this.shift);
+  }
+
+  /**
+   * Returns the position of a pixel within its tile.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return int position within the tile.
+   */
+  private int index(int row, int col) {
+    return ((row & this.mask) << this.shift) + (col & this.mask);
+  }
+
+  /**
+   * Returns the shared blank tile of the given size and value.
+   *
+   * @param size the width and height of the tile.
+   * @param argb the packed ARGB value of every pixel in the tile.
+   * @return int[] shared tile, which must not be written to.
+   */
+  private static int[] blankTile(int size, int argb) {
+    long key = ((long) size << 32) | (argb & 0xffffffffL);
+    return BLANK_TILES.computeIfAbsent(key, k -> {
+      int[] tile = new int[size * size];
+      Arrays.fill(tile, argb);
+      return tile;
+    });
+  }
+}
@@ -0,0 +1,80 @@
+package model.filters;
+
+import java.util.List;
+
+import model.ILayer;
+import model.IPixel;
+import model.PackedPixel;
+
+/**
+ * Represents a filter that only looks at the pixel it changes, with the apply method built on top
+ * of the filter's packed ARGB kernel. The layer is read a row at a time, each row is filtered in
+ * place, and the filtered values are handed back as lightweight pixel views, so the filter's
+ * arithmetic is written once and shared by every way of applying it.
+ */
+public abstract class APixelFilter implements IPlanarFilter {
+  //the vector kernels, or null if the vector API or the kernels built with it are missing
+  static final IRowKernels VECTORS = vectorKernels();
+  //the kernels the filters start every span with
+  static final IRowKernels KERNELS = VECTORS != null ? VECTORS : new ScalarKernels();
+
+  private final String name;
+
+  /**
+   * Constructs a filter with the given name.
+   *
+   * @param name the name of the filter.
+   */
+  protected APixelFilter(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Applies the filter to the given layer.
+   *
+   * @param layers a list of layers.
+   * @param layer  the layer to filter.
+   * @return IPixel[][] is the new image.
+   */
+  @Override
+  public IPixel[][] apply(List<ILayer> layers, ILayer layer) {
+    IPixel[][] pixels = new IPixel[layer.getHeight()][layer.getWidth()];
+    int[] row = new int[layer.getWidth()];
+    for (int i = 0; i < layer.getHeight(); i++) {
+      layer.readRow(i, 0, row.length, row, 0);
+      this.applyRow(row, 0, row.length);
+      for (int j = 0; j < row.length; j++) {
+        pixels[i][j] = new PackedPixel(row[j]);
+      }
+    }
+    return pixels;
+  }
+
+  /**
+   * Returns the vector kernels, loaded by name so the filters compile and run without them.
+   *
+   * @return IRowKernels the vector kernels, or null if they cannot be used.
+   */
+  private static IRowKernels vectorKernels() {
+    if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      return null;
+    }
+    try {
+      return (IRowKernels) Class.forName("model.filters.VectorKernels")
+              .getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      //built without the optional vector sources
+      return null;
+    }
+  }
+
+  /**
+   * Gets the name of the filter.
+   *
+   * @return string name of the filter.
+   */
+  @Override
+  public String getName() {
+    return this.name;
+  }
+}
@@ -1,51 +1,56 @@
 package model.filters;
 
-import java.util.List;
-
-import model.ILayer;
-import model.IPixel;
-import model.Pixel;
+import java.util.Arrays;
 
 /**
  * Represents a blue filter.
  */
-public class BlueFilter implements IFilter {
-  private String name;
+public class BlueFilter extends APixelFilter {
 
   /**
    * Constructs a blue filter and sets its name.
    */
   public BlueFilter() {
-    this.name = "blueFilter";
+    super("blueFilter");
   }
 
   /**
-   * Applies the Blue filter to the top layer.
+   * Applies the blue filter to one packed ARGB value.
    *
-   * @param layers a list of layers.
-   * @return IPixel[][] is the new image.
+   * @param argb the packed ARGB value.
+   * @return int the filtered value.
    */
-  public IPixel[][] apply(List<ILayer> layers, ILayer layer) {
-    IPixel[][] pixels = layer.getCanvas();
-    IPixel[][] newPixels = new IPixel[pixels.length][pixels[0].length];
+  @Override
+  public int applyArgb(int argb) {
+    return argb & 0xff0000ff;
+  }
 
-    for (int i = 0; i < pixels.length; i++) {
-      for (int j = 0; j < pixels[0].length; j++) {
-        IPixel pixel = pixels[i][j];
-        int color = pixel.getBlue();
-        newPixels[i][j] = new Pixel(0, 0, color, pixel.getAlpha());
-      }
+  /**
+   * Applies the blue filter, in place, to a span of packed ARGB values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values to filter.
+   */
+  @Override
+  public void applyRow(int[] argb, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      argb[i] = this.applyArgb(argb[i]);
     }
-    return newPixels;
   }
 
   /**
-   * Gets the name of the filter.
+   * Applies the Blue filter to the given planes by clearing the red and green planes.
    *
-   * @return string name of the filter.
+   * @param red    the red plane.
+   * @param green  the green plane.
+   * @param blue   the blue plane.
+   * @param alpha  the alpha plane.
+   * @param length the number of pixels to filter.
    */
-  public String getName() {
-    return this.name;
+  @Override
+  public void applyPlanes(byte[] red, byte[] green, byte[] blue, byte[] alpha, int length) {
+    Arrays.fill(red, 0, length, (byte) 0);
+    Arrays.fill(green, 0, length, (byte) 0);
   }
-
 }
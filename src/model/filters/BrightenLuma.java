@@ -1,69 +1,69 @@
 package model.filters;
 
-import java.util.List;
-
-import model.ILayer;
-import model.IPixel;
-import model.Pixel;
-
 /**
  * Represents the Brighten Luma filter.
  */
-public class BrightenLuma implements IFilter {
-
-  private String name;
+public class BrightenLuma extends APixelFilter {
 
   /**
    * Constructs a Brighten Luma filter and sets its name.
    */
   public BrightenLuma() {
-    this.name = "brightenLuma";
+    super("brightenLuma");
   }
 
   /**
-   * Applies the brighten luma filter to the top layer.
+   * Applies the brighten luma filter to one packed ARGB value.
    *
-   * @param layers a list of layers.
-   * @return IPixel[][] is the new image.
+   * @param argb the packed ARGB value.
+   * @return int the filtered value.
    */
   @Override
-  public IPixel[][] apply(List<ILayer> layers, ILayer layer) {
-    IPixel[][] pixels = layer.getCanvas();
-    IPixel[][] newPixels = new IPixel[pixels.length][pixels[0].length];
+  public int applyArgb(int argb) {
+    int r = argb >> 16 & 0xff;
+    int g = argb >> 8 & 0xff;
+    int b = argb & 0xff;
+    int sum = r + g + b;
+    int red = Math.min(r + (r / sum) * r, 255);
+    int green = Math.min(g + (g / sum) * g, 255);
+    int blue = Math.min(b + (b / sum) * b, 255);
+    return (argb & 0xff000000) | red << 16 | green << 8 | blue;
+  }
 
-    for (int i = 0; i < pixels.length; i++) {
-      for (int j = 0; j < pixels[0].length; j++) {
-        IPixel pixel = pixels[i][j];
-        int color1 = pixel.getRed() + (((pixel.getRed() / (pixel.getRed() + pixel.getGreen()
-                + pixel.getBlue())) * pixel.getRed()));
-        if (color1 > 255) {
-          color1 = 255;
-        }
-        int color2 = pixel.getGreen() + ((pixel.getGreen() / (pixel.getRed() + pixel.getGreen()
-                + pixel.getBlue())) * pixel.getGreen());
-        if (color2 > 255) {
-          color2 = 255;
-        }
-        int color3 = pixel.getBlue() + ((pixel.getBlue() / (pixel.getRed() + pixel.getGreen()
-                + pixel.getBlue()) * pixel.getBlue()));
-        if (color3 > 255) {
-          color3 = 255;
-        }
-        newPixels[i][j] = new Pixel(color1, color2, color3, pixel.getAlpha());
-      }
+  /**
+   * Applies the brighten luma filter, in place, to a span of packed ARGB values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values to filter.
+   */
+  @Override
+  public void applyRow(int[] argb, int offset, int length) {
+    int start = KERNELS.brightenLuma(argb, offset, length);
+    for (int i = start; i < offset + length; i++) {
+      argb[i] = this.applyArgb(argb[i]);
     }
-    return newPixels;
   }
 
   /**
-   * Gets the name of the filter.
+   * Applies the brighten luma filter, in place, to the given planes.
    *
-   * @return string name of the filter.
+   * @param red    the red plane.
+   * @param green  the green plane.
+   * @param blue   the blue plane.
+   * @param alpha  the alpha plane.
+   * @param length the number of pixels to filter.
    */
-  public String getName() {
-    return this.name;
+  @Override
+  public void applyPlanes(byte[] red, byte[] green, byte[] blue, byte[] alpha, int length) {
+    for (int i = 0; i < length; i++) {
+      int r = red[i] & 0xff;
+      int g = green[i] & 0xff;
+      int b = blue[i] & 0xff;
+      int sum = r + g + b;
+      red[i] = (byte) Math.min(r + (r / sum) * r, 255);
+      green[i] = (byte) Math.min(g + (g / sum) * g, 255);
+      blue[i] = (byte) Math.min(b + (b / sum) * b, 255);
+    }
   }
 }
-
-
-
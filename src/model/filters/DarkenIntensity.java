@@ -1,67 +1,69 @@
 package model.filters;
 
-import java.util.List;
-
-import model.ILayer;
-import model.IPixel;
-import model.Pixel;
-
 /**
  * Represents the Darken Intensity filter.
  */
-public class DarkenIntensity implements IFilter {
-
-  private String name;
+public class DarkenIntensity extends APixelFilter {
 
   /**
    * Constructs a Darken Intensity filter and sets its name.
    */
   public DarkenIntensity() {
-    this.name = "darkenIntensity";
+    super("darkenIntensity");
   }
 
-
   /**
-   * Applies the darken intensity filter to the top layer.
+   * Applies the darken intensity filter to one packed ARGB value.
    *
-   * @param layers a list of layers.
-   * @return IPixel[][] is the new image.
+   * @param argb the packed ARGB value.
+   * @return int the filtered value.
    */
   @Override
-  public IPixel[][] apply(List<ILayer> layers, ILayer layer) {
-    IPixel[][] pixels = layer.getCanvas();
-    IPixel[][] newPixels = new IPixel[pixels.length][pixels[0].length];
+  public int applyArgb(int argb) {
+    int r = argb >> 16 & 0xff;
+    int g = argb >> 8 & 0xff;
+    int b = argb & 0xff;
+    int mean = (r + g + b) / 3;
+    int red = Math.max(mean - r, 0);
+    int green = Math.max(mean - g, 0);
+    int blue = Math.max(mean - b, 0);
+    return (argb & 0xff000000) | red << 16 | green << 8 | blue;
+  }
 
-    for (int i = 0; i < pixels.length; i++) {
-      for (int j = 0; j < pixels[0].length; j++) {
-        IPixel pixel = pixels[i][j];
-        int color1 = (pixel.getRed() + pixel.getGreen() + pixel.getBlue()) / 3 - pixel.getRed();
-        if (color1 < 0) {
-          color1 = 0;
-        }
-        int color2 = (pixel.getRed() + pixel.getGreen() + pixel.getBlue()) / 3 - pixel.getGreen();
-        if (color2 < 0) {
-          color2 = 0;
-        }
-        int color3 = (pixel.getRed() + pixel.getGreen() + pixel.getBlue()) / 3 - pixel.getBlue();
-        if (color3 < 0) {
-          color3 = 0;
-        }
-        newPixels[i][j] = new Pixel(color1, color2, color3, pixel.getAlpha());
-      }
+  /**
+   * Applies the darken intensity filter, in place, to a span of packed ARGB values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values to filter.
+   */
+  @Override
+  public void applyRow(int[] argb, int offset, int length) {
+    int start = KERNELS.darkenIntensity(argb, offset, length);
+    for (int i = start; i < offset + length; i++) {
+      argb[i] = this.applyArgb(argb[i]);
     }
-    return newPixels;
   }
 
   /**
-   * Gets the name of the filter.
+   * Applies the darken intensity filter, in place, to the given planes.
    *
-   * @return string name of the filter.
+   * @param red    the red plane.
+   * @param green  the green plane.
+   * @param blue   the blue plane.
+   * @param alpha  the alpha plane.
+   * @param length the number of pixels to filter.
    */
-  public String getName() {
-    return this.name;
+  @Override
+  public void applyPlanes(byte[] red, byte[] green, byte[] blue, byte[] alpha, int length) {
+    for (int i = 0; i < length; i++) {
+      int r = red[i] & 0xff;
+      int g = green[i] & 0xff;
+      int b = blue[i] & 0xff;
+      int mean = (r + g + b) / 3;
+      red[i] = (byte) Math.max(mean - r, 0);
+      green[i] = (byte) Math.max(mean - g, 0);
+      blue[i] = (byte) Math.max(mean - b, 0);
+    }
   }
 }
-
-
-
@@ -1,96 +1,69 @@
 package model.filters;
 
-import java.util.List;
-
-import model.ILayer;
-import model.IPixel;
-import model.Pixel;
-
 /**
  * Represents the Darken Value filter.
  */
-public class DarkenValue implements IFilter {
-
-  private String name;
+public class DarkenValue extends APixelFilter {
 
   /**
    * Constructs a Darken Value filter and sets its name.
    */
   public DarkenValue() {
-    this.name = "darkenValue";
+    super("darkenValue");
   }
 
   /**
-   * Applies the Darken Value filter to the top layer.
+   * Applies the darken value filter to one packed ARGB value.
    *
-   * @param layers a list of layers.
-   * @return IPixel[][] is the new image.
+   * @param argb the packed ARGB value.
+   * @return int the filtered value.
    */
   @Override
-  public IPixel[][] apply(List<ILayer> layers, ILayer layer) {
-    IPixel[][] pixels = layer.getCanvas();
-    IPixel[][] newPixels = new IPixel[pixels.length][pixels[0].length];
+  public int applyArgb(int argb) {
+    int r = argb >> 16 & 0xff;
+    int g = argb >> 8 & 0xff;
+    int b = argb & 0xff;
+    int value = r > g && r > b ? r : g > r && g > b ? g : b;
+    int red = Math.max(r - value, 0);
+    int green = Math.max(g - value, 0);
+    int blue = Math.max(b - value, 0);
+    return (argb & 0xff000000) | red << 16 | green << 8 | blue;
+  }
 
-    for (int i = 0; i < pixels.length; i++) {
-      for (int j = 0; j < pixels[0].length; j++) {
-        IPixel pixel = pixels[i][j];
-        if (pixel.getRed() > pixel.getGreen() && pixel.getRed() > pixel.getBlue()) {
-          int color1 = pixel.getRed() - pixel.getRed();
-          int color2 = pixel.getGreen() - pixel.getRed();
-          int color3 = pixel.getBlue() - pixel.getRed();
-          if (color1 < 0) {
-            color1 = 0;
-          }
-          if (color2 < 0) {
-            color2 = 0;
-          }
-          if (color3 < 0) {
-            color3 = 0;
-          }
-          newPixels[i][j] = new Pixel(color1, color2, color3, pixel.getAlpha());
-        } else if (pixel.getGreen() > pixel.getRed() && pixel.getGreen() > pixel.getBlue()) {
-          int color1 = pixel.getRed() - pixel.getGreen();
-          int color2 = pixel.getGreen() - pixel.getGreen();
-          int color3 = pixel.getBlue() - pixel.getGreen();
-          if (color1 < 0) {
-            color1 = 0;
-          }
-          if (color2 < 0) {
-            color2 = 0;
-          }
-          if (color3 < 0) {
-            color3 = 0;
-          }
-          newPixels[i][j] = new Pixel(color1, color2, color3, pixel.getAlpha());
-        } else {
-          int color1 = pixel.getRed() - pixel.getBlue();
-          int color2 = pixel.getGreen() - pixel.getBlue();
-          int color3 = pixel.getBlue() - pixel.getBlue();
-          if (color1 < 0) {
-            color1 = 0;
-          }
-          if (color2 < 0) {
-            color2 = 0;
-          }
-          if (color3 < 0) {
-            color3 = 0;
-          }
-          newPixels[i][j] = new Pixel(color1, color2, color3, pixel.getAlpha());
-        }
-      }
+  /**
+   * Applies the darken value filter, in place, to a span of packed ARGB values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values to filter.
+   */
+  @Override
+  public void applyRow(int[] argb, int offset, int length) {
+    int start = KERNELS.darkenValue(argb, offset, length);
+    for (int i = start; i < offset + length; i++) {
+      argb[i] = this.applyArgb(argb[i]);
     }
-    return newPixels;
   }
 
   /**
-   * Gets the name of the filter.
+   * Applies the darken value filter, in place, to the given planes.
    *
-   * @return string name of the filter.
+   * @param red    the red plane.
+   * @param green  the green plane.
+   * @param blue   the blue plane.
+   * @param alpha  the alpha plane.
+   * @param length the number of pixels to filter.
    */
-  public String getName() {
-    return this.name;
+  @Override
+  public void applyPlanes(byte[] red, byte[] green, byte[] blue, byte[] alpha, int length) {
+    for (int i = 0; i < length; i++) {
+      int r = red[i] & 0xff;
+      int g = green[i] & 0xff;
+      int b = blue[i] & 0xff;
+      int value = r > g && r > b ? r : g > r && g > b ? g : b;
+      red[i] = (byte) Math.max(r - value, 0);
+      green[i] = (byte) Math.max(g - value, 0);
+      blue[i] = (byte) Math.max(b - value, 0);
+    }
   }
 }
-
-
-
@@ -9,7 +9,7 @@ import model.Pixel;
 /**
  * Represents a difference filter.
  */
-public class Difference implements IFilter {
+public class Difference implements IBlendFilter {
 
   private String name;
 
@@ -72,6 +72,25 @@ public class Difference implements IFilter {
   }
 
 
+  /**
+   * Blends pixels of a layer with the composite beneath them, by the difference of each channel.
+   *
+   * @param top    the pixels of the layer, replaced by the blended pixels.
+   * @param below  the composite of the layers beneath.
+   * @param length the number of pixels to blend.
+   */
+  @Override
+  public void blend(int[] top, int[] below, int length) {
+    for (int i = 0; i < length; i++) {
+      int a = top[i];
+      int b = below[i];
+      int red = Math.abs((a >> 16 & 0xff) - (b >> 16 & 0xff));
+      int green = Math.abs((a >> 8 & 0xff) - (b >> 8 & 0xff));
+      int blue = Math.abs((a & 0xff) - (b & 0xff));
+      top[i] = (a & 0xff000000) | red << 16 | green << 8 | blue;
+    }
+  }
+
   /**
    * Gets the name of the filter.
    *
@@ -0,0 +1,140 @@
+package model.filters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents several filters that only look at the pixel they change, applied one after another
+ * as a single filter.
+ * Applying the filters one at a time to a layer makes a pass over the whole layer, and a whole
+ * new layer of results, per filter. The chain instead applies every filter to one span of a row
+ * before moving on to the next, so the span stays in the cache between filters and the layer is
+ * read and written once. Each filter filters the whole span in a loop of its own, where the call
+ * to its kernel always goes to the same method and can be inlined, so the only calls that are not
+ * are the ones from the chain to each filter, once per span rather than once per pixel.
+ * Chains given to a chain are flattened into it, and normal filters are left out, as they change
+ * nothing.
+ */
+public class FilterChain extends APixelFilter {
+  private final IPlanarFilter[] filters;
+
+  /**
+   * Constructs a chain of filters, applied in the given order.
+   *
+   * @param filters the filters to apply, first to last.
+   * @throws IllegalArgumentException if no filters are given, or any of them is null.
+   */
+  public FilterChain(IPlanarFilter... filters) throws IllegalArgumentException {
+    this(flatten(filters));
+  }
+
+  /**
+   * Constructs a chain of filters that have already been flattened.
+   *
+   * @param filters the filters to apply, first to last.
+   */
+  private FilterChain(List<IPlanarFilter> filters) {
+    super(name(filters));
+    this.filters = filters.toArray(new IPlanarFilter[0]);
+  }
+
+  /**
+   * Returns the filters of the chain, first to last.
+   *
+   * @return List of filters, which cannot be modified.
+   */
+  public List<IPlanarFilter> getFilters() {
+    List<IPlanarFilter> list = new ArrayList<IPlanarFilter>();
+    Collections.addAll(list, this.filters);
+    return Collections.unmodifiableList(list);
+  }
+
+  /**
+   * Applies every filter of the chain, in order, to one packed ARGB value.
+   *
+   * @param argb the packed ARGB value.
+   * @return int the filtered value.
+   */
+  @Override
+  public int applyArgb(int argb) {
+    for (IPlanarFilter filter : this.filters) {
+      argb = filter.applyArgb(argb);
+    }
+    return argb;
+  }
+
+  /**
+   * Applies every filter of the chain, in order, to a span of packed ARGB values, in place.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values to filter.
+   */
+  @Override
+  public void applyRow(int[] argb, int offset, int length) {
+    for (IPlanarFilter filter : this.filters) {
+      filter.applyRow(argb, offset, length);
+    }
+  }
+
+  /**
+   * Applies every filter of the chain, in order, to the given planes, in place.
+   *
+   * @param red    the red plane.
+   * @param green  the green plane.
+   * @param blue   the blue plane.
+   * @param alpha  the alpha plane.
+   * @param length the number of pixels to filter.
+   */
+  @Override
+  public void applyPlanes(byte[] red, byte[] green, byte[] blue, byte[] alpha, int length) {
+    for (IPlanarFilter filter : this.filters) {
+      filter.applyPlanes(red, green, blue, alpha, length);
+    }
+  }
+
+  /**
+   * Returns the filters of a chain, with the filters of any chain among them in its place and
+   * normal filters left out.
+   *
+   * @param filters the filters to apply, first to last.
+   * @return List of filters.
+   * @throws IllegalArgumentException if no filters are given, or any of them is null.
+   */
+  private static List<IPlanarFilter> flatten(IPlanarFilter[] filters)
+          throws IllegalArgumentException {
+    if (filters == null || filters.length == 0) {
+      throw new IllegalArgumentException("A filter chain needs at least one filter");
+    }
+    List<IPlanarFilter> flat = new ArrayList<IPlanarFilter>();
+    for (IPlanarFilter filter : filters) {
+      if (filter == null) {
+        throw new IllegalArgumentException("Filters in a chain must not be null");
+      }
+      if (filter instanceof FilterChain) {
+        Collections.addAll(flat, ((FilterChain) filter).filters);
+      } else if (!(filter instanceof Normal)) {
+        flat.add(filter);
+      }
+    }
+    return flat;
+  }
+
+  /**
+   * Returns the name of a chain, the names of its filters joined in order.
+   *
+   * @param filters the filters of the chain.
+   * @return String the name.
+   */
+  private static String name(List<IPlanarFilter> filters) {
+    if (filters.isEmpty()) {
+      return new Normal().getName();
+    }
+    List<String> names = new ArrayList<String>(filters.size());
+    for (IPlanarFilter filter : filters) {
+      names.add(filter.getName());
+    }
+    return String.join("+", names);
+  }
+}
@@ -0,0 +1,23 @@
+package model.filters;
+
+/**
+ * Represents a filter that blends a layer with the layers beneath it.
+ * The output of a blend filter depends on more than the layer it is applied to, so a rendered
+ * result can only be reused while the layers beneath are unchanged as well.
+ * The compositor blends a layer with the composite of every layer beneath it, which it already
+ * has at hand while merging, so a stack of blend layers costs one pass per layer. The apply method
+ * keeps its own view of which layers a layer is blended with.
+ */
+public interface IBlendFilter extends IFilter {
+
+  /**
+   * Blends, in place, the first length pixels of a layer with the composite beneath them. Both
+   * are straight packed ARGB values; the result keeps the alpha of the layer, and only its color
+   * is blended, as if the composite beneath were opaque.
+   *
+   * @param top    the pixels of the layer, replaced by the blended pixels.
+   * @param below  the composite of the layers beneath.
+   * @param length the number of pixels to blend.
+   */
+  void blend(int[] top, int[] below, int length);
+}
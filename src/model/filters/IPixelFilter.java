@@ -0,0 +1,26 @@
+package model.filters;
+
+/**
+ * Represents a filter that only looks at the pixel it changes, applied straight to packed ARGB
+ * values. Applying the filter to packed values gives exactly the same result as the filter's
+ * apply method, without reading each pixel through an IPixel or allocating one per result.
+ */
+public interface IPixelFilter extends IFilter {
+
+  /**
+   * Applies the filter to one packed ARGB value.
+   *
+   * @param argb the packed ARGB value.
+   * @return int the filtered value.
+   */
+  int applyArgb(int argb);
+
+  /**
+   * Applies the filter, in place, to a span of packed ARGB values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values to filter.
+   */
+  void applyRow(int[] argb, int offset, int length);
+}
@@ -0,0 +1,24 @@
+package model.filters;
+
+/**
+ * Represents a filter that only looks at the pixel it changes, and can therefore also be applied
+ * to packed ARGB values and to pixels split into separate red, green, blue and alpha planes.
+ * Plane values are unsigned bytes, so a value is read as {@code plane[i] & 0xff}.
+ * Applying the filter to planes gives exactly the same result as the filter's apply method.
+ * Planar filters never change the alpha plane, or the alpha of a packed value, so a layer's
+ * filtered result is exactly as opaque as its source pixels. The color they give a pixel only
+ * depends on its color, not on its alpha, so they can be compiled into a LookupFilter.
+ */
+public interface IPlanarFilter extends IPixelFilter {
+
+  /**
+   * Applies the filter, in place, to the first length pixels of the given planes.
+   *
+   * @param red    the red plane.
+   * @param green  the green plane.
+   * @param blue   the blue plane.
+   * @param alpha  the alpha plane.
+   * @param length the number of pixels to filter.
+   */
+  void applyPlanes(byte[] red, byte[] green, byte[] blue, byte[] alpha, int length);
+}
@@ -0,0 +1,72 @@
+package model.filters;
+
+/**
+ * Represents faster kernels for the brighten and darken filters, which filter packed ARGB rows
+ * several values at a time. Each kernel filters a span from its start for as long as it can and
+ * returns where it stopped, so the filter finishes the rest of the span with its own kernel. The
+ * results are exactly those of the filters' own kernels.
+ */
+interface IRowKernels {
+
+  /**
+   * Applies the brighten intensity filter, in place, to the start of a span of values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  int brightenIntensity(int[] argb, int offset, int length);
+
+  /**
+   * Applies the darken intensity filter, in place, to the start of a span of values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  int darkenIntensity(int[] argb, int offset, int length);
+
+  /**
+   * Applies the brighten value filter, in place, to the start of a span of values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  int brightenValue(int[] argb, int offset, int length);
+
+  /**
+   * Applies the darken value filter, in place, to the start of a span of values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  int darkenValue(int[] argb, int offset, int length);
+
+  /**
+   * Applies the brighten luma filter, in place, to the start of a span of values. It stops
+   * before any black pixel, which the filter's own kernel fails on.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  int brightenLuma(int[] argb, int offset, int length);
+
+  /**
+   * Applies the darken luma filter, in place, to the start of a span of values. It stops before
+   * any black pixel, which the filter's own kernel fails on.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  int darkenLuma(int[] argb, int offset, int length);
+}
@@ -0,0 +1,75 @@
+package model.filters;
+
+/**
+ * Represents the arithmetic of changing the HSL lightness of packed ARGB values in integers.
+ * The lightness of a color is the mean of its largest and smallest channels, and a color keeps
+ * its hue and saturation when every channel keeps its distance from the lightness in proportion to
+ * how far the lightness can go, min(L, 1 - L). A color with a new lightness is therefore built
+ * straight from its channels, without converting it to HSL and back.
+ * Lightness is kept doubled, as the sum of the largest and smallest channels from 0 to 510, and a
+ * new lightness as a fraction of 510 * 510, so every step is exact and the result is rounded down
+ * once, as converting back from HSL truncates.
+ */
+final class Lightness {
+  //the denominator of a new lightness, 1 in the units of a product of two doubled lightnesses
+  static final long ONE = 510L * 510L;
+
+  /**
+   * Represents a constructor that is never used, as the class only holds static methods.
+   */
+  private Lightness() {
+  }
+
+  /**
+   * Returns the lightness of a packed ARGB value, doubled: the sum of its largest and smallest
+   * color channels.
+   *
+   * @param argb the packed ARGB value.
+   * @return int the doubled lightness, from 0 to 510.
+   */
+  static int doubled(int argb) {
+    int r = argb >> 16 & 0xff;
+    int g = argb >> 8 & 0xff;
+    int b = argb & 0xff;
+    return Math.max(r, Math.max(g, b)) + Math.min(r, Math.min(g, b));
+  }
+
+  /**
+   * Returns a packed ARGB value given a new lightness, keeping its hue, saturation and alpha.
+   *
+   * @param argb      the packed ARGB value.
+   * @param lightness the new lightness, from 0 to ONE.
+   * @return int the packed ARGB value with the new lightness.
+   */
+  static int relight(int argb, long lightness) {
+    int doubled = doubled(argb);
+    //how far the lightness can move the channels, before and after
+    long range = Math.min(doubled, 510 - doubled);
+    long newRange = Math.min(lightness, ONE - lightness);
+    int red = channel(argb >> 16 & 0xff, doubled, range, lightness, newRange);
+    int green = channel(argb >> 8 & 0xff, doubled, range, lightness, newRange);
+    int blue = channel(argb & 0xff, doubled, range, lightness, newRange);
+    return (argb & 0xff000000) | red << 16 | green << 8 | blue;
+  }
+
+  /**
+   * Returns one channel of a color given a new lightness.
+   *
+   * @param channel   the channel, from 0 to 255.
+   * @param doubled   the doubled lightness of the color.
+   * @param range     how far the lightness of the color can move, doubled.
+   * @param lightness the new lightness, from 0 to ONE.
+   * @param newRange  how far the new lightness can move, from 0 to ONE.
+   * @return int the new channel, from 0 to 255.
+   */
+  private static int channel(int channel, int doubled, long range, long lightness,
+                             long newRange) {
+    if (range == 0) {
+      //black and white have no hue or saturation to keep
+      return (int) (255 * lightness / ONE);
+    }
+    //the new lightness, plus the channel's distance from the old one scaled by newRange / range
+    long scaled = 255 * lightness * range + 255 * (2L * channel - doubled) * newRange;
+    return (int) Math.max(0, Math.min(255, Math.floorDiv(scaled, ONE * range)));
+  }
+}
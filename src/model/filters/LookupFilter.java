@@ -0,0 +1,217 @@
+package model.filters;
+
+/**
+ * Represents a filter compiled into a lookup table of its results.
+ * Planar filters only look at the color of the pixel they change and keep its alpha, so a table
+ * of the result for every color gives the same result as the filter itself, with one lookup per
+ * pixel however much work the filter does. The exact table holds every one of the 2^24 colors and
+ * takes 64MB, so it is kept in a LookupTables cache rather than built again. The grid table
+ * instead holds the result for a 33 x 33 x 33 grid of colors, which fits in the cache, and
+ * interpolates between the eight corners around a color, so its results are only close to the
+ * filter's where the filter is smooth.
+ * Colors the filter fails on are left out of the table, and are passed to the filter itself, so
+ * a compiled filter fails exactly where the filter does.
+ */
+public class LookupFilter extends APixelFilter {
+  //grid nodes are 8 apart, from 0 to 256, and 256 is read as 255
+  private static final int STEP = 8;
+  private static final int NODES = 256 / STEP + 1;
+  //set on the entries of colors the filter failed on, which are never valid RGB values
+  private static final int MISSING = 0x01000000;
+
+  private final IPlanarFilter filter;
+  private final boolean exact;
+  private final int[] table;
+
+  /**
+   * Constructs a lookup table for a filter.
+   *
+   * @param filter the filter to compile.
+   * @param exact  whether to build the exact table, or the grid.
+   */
+  private LookupFilter(IPlanarFilter filter, boolean exact) {
+    super(filter.getName());
+    this.filter = filter;
+    this.exact = exact;
+    this.table = exact ? exactTable(filter) : gridTable(filter);
+  }
+
+  /**
+   * Returns a filter compiled into a new lookup table. Normal filters and the channel filters
+   * already take a single operation per pixel, and are returned as they are.
+   *
+   * @param filter the filter to compile.
+   * @param exact  whether to use the exact table, or the smaller, interpolated grid.
+   * @return IPlanarFilter the compiled filter.
+   */
+  public static IPlanarFilter compile(IPlanarFilter filter, boolean exact) {
+    if (filter instanceof LookupFilter || filter instanceof Normal || filter instanceof RedFilter
+            || filter instanceof GreenFilter || filter instanceof BlueFilter) {
+      return filter;
+    }
+    return new LookupFilter(filter, exact);
+  }
+
+  /**
+   * Returns the filter the table was compiled from.
+   *
+   * @return IPlanarFilter the filter.
+   */
+  public IPlanarFilter getFilter() {
+    return this.filter;
+  }
+
+  /**
+   * Looks up the filtered value of one packed ARGB value.
+   *
+   * @param argb the packed ARGB value.
+   * @return int the filtered value.
+   */
+  @Override
+  public int applyArgb(int argb) {
+    int rgb = this.exact ? this.table[argb & 0xffffff] : this.interpolate(argb);
+    if ((rgb & MISSING) != 0) {
+      return this.filter.applyArgb(argb);
+    }
+    return (argb & 0xff000000) | rgb;
+  }
+
+  /**
+   * Looks up the filtered values of a span of packed ARGB values, in place.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values to filter.
+   */
+  @Override
+  public void applyRow(int[] argb, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      argb[i] = this.applyArgb(argb[i]);
+    }
+  }
+
+  /**
+   * Looks up the filtered values of the given planes, in place.
+   *
+   * @param red    the red plane.
+   * @param green  the green plane.
+   * @param blue   the blue plane.
+   * @param alpha  the alpha plane.
+   * @param length the number of pixels to filter.
+   */
+  @Override
+  public void applyPlanes(byte[] red, byte[] green, byte[] blue, byte[] alpha, int length) {
+    for (int i = 0; i < length; i++) {
+      int argb = this.applyArgb((alpha[i] & 0xff) << 24 | (red[i] & 0xff) << 16
+              | (green[i] & 0xff) << 8 | (blue[i] & 0xff));
+      red[i] = (byte) (argb >> 16);
+      green[i] = (byte) (argb >> 8);
+      blue[i] = (byte) argb;
+    }
+  }
+
+  /**
+   * Returns the color of a pixel interpolated from the eight grid nodes around it, or MISSING if
+   * the filter failed on any of them.
+   *
+   * @param argb the packed ARGB value.
+   * @return int the interpolated RGB value.
+   */
+  private int interpolate(int argb) {
+    int r = argb >> 16 & 0xff;
+    int g = argb >> 8 & 0xff;
+    int b = argb & 0xff;
+    int base = (r / STEP * NODES + g / STEP) * NODES + b / STEP;
+    //weights out of STEP towards the next node, with 255 counted as the last node
+    int fr = r == 255 ? STEP : r % STEP;
+    int fg = g == 255 ? STEP : g % STEP;
+    int fb = b == 255 ? STEP : b % STEP;
+    int red = 0;
+    int green = 0;
+    int blue = 0;
+    for (int corner = 0; corner < 8; corner++) {
+      int dr = corner >> 2 & 1;
+      int dg = corner >> 1 & 1;
+      int db = corner & 1;
+      int weight = (dr == 0 ? STEP - fr : fr) * (dg == 0 ? STEP - fg : fg)
+              * (db == 0 ? STEP - fb : fb);
+      if (weight == 0) {
+        continue;
+      }
+      int node = this.table[base + (dr * NODES + dg) * NODES + db];
+      if ((node & MISSING) != 0) {
+        return MISSING;
+      }
+      red += (node >> 16 & 0xff) * weight;
+      green += (node >> 8 & 0xff) * weight;
+      blue += (node & 0xff) * weight;
+    }
+    int half = STEP * STEP * STEP / 2;
+    return (red + half) / (STEP * STEP * STEP) << 16 | (green + half) / (STEP * STEP * STEP) << 8
+            | (blue + half) / (STEP * STEP * STEP);
+  }
+
+  /**
+   * Returns the filtered color of every color, a row of 256 blues at a time.
+   *
+   * @param filter the filter to compile.
+   * @return int[] the RGB result for each RGB value.
+   */
+  private static int[] exactTable(IPlanarFilter filter) {
+    int[] table = new int[1 << 24];
+    int[] row = new int[256];
+    for (int redGreen = 0; redGreen < 1 << 16; redGreen++) {
+      int first = redGreen << 8;
+      for (int b = 0; b < 256; b++) {
+        row[b] = 0xff000000 | first | b;
+      }
+      try {
+        filter.applyRow(row, 0, 256);
+        for (int b = 0; b < 256; b++) {
+          table[first | b] = row[b] & 0xffffff;
+        }
+      } catch (RuntimeException e) {
+        //find the colors of the row the filter fails on
+        for (int b = 0; b < 256; b++) {
+          table[first | b] = entry(filter, first | b);
+        }
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Returns the filtered color of every node of the grid.
+   *
+   * @param filter the filter to compile.
+   * @return int[] the RGB result for each node.
+   */
+  private static int[] gridTable(IPlanarFilter filter) {
+    int[] table = new int[NODES * NODES * NODES];
+    for (int r = 0; r < NODES; r++) {
+      for (int g = 0; g < NODES; g++) {
+        for (int b = 0; b < NODES; b++) {
+          int rgb = Math.min(r * STEP, 255) << 16 | Math.min(g * STEP, 255) << 8
+                  | Math.min(b * STEP, 255);
+          table[(r * NODES + g) * NODES + b] = entry(filter, rgb);
+        }
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Returns the filtered color of one color, or MISSING if the filter fails on it.
+   *
+   * @param filter the filter to compile.
+   * @param rgb    the color.
+   * @return int the RGB result.
+   */
+  private static int entry(IPlanarFilter filter, int rgb) {
+    try {
+      return filter.applyArgb(0xff000000 | rgb) & 0xffffff;
+    } catch (RuntimeException e) {
+      return MISSING;
+    }
+  }
+}
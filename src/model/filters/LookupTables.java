@@ -0,0 +1,69 @@
+package model.filters;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Represents a small cache of filters compiled into lookup tables, shared by the renders of one
+ * project. Only the few tables used most recently are kept, as an exact table takes 64MB, and
+ * tables are built outside of the cache's lock, so looking up one filter never waits on another
+ * being compiled.
+ */
+public class LookupTables {
+  private static final int CAPACITY = 4;
+
+  private final boolean exact;
+  private final Map<String, IPlanarFilter> tables =
+          new LinkedHashMap<String, IPlanarFilter>(16, 0.75f, true);
+
+  /**
+   * Constructs an empty cache of lookup tables.
+   *
+   * @param exact whether to build exact tables, or the smaller, interpolated grids.
+   */
+  public LookupTables(boolean exact) {
+    this.exact = exact;
+  }
+
+  /**
+   * Returns whether the tables are exact, rather than interpolated grids.
+   *
+   * @return boolean whether the tables are exact.
+   */
+  public boolean isExact() {
+    return this.exact;
+  }
+
+  /**
+   * Returns a filter compiled into a lookup table, built the first time a filter of its kind and
+   * name is compiled and kept while it is one of the most recently used.
+   *
+   * @param filter the filter to compile.
+   * @return IPlanarFilter the compiled filter.
+   */
+  public IPlanarFilter compile(IPlanarFilter filter) {
+    String key = filter.getClass().getName() + ":" + filter.getName();
+    synchronized (this.tables) {
+      IPlanarFilter compiled = this.tables.get(key);
+      if (compiled != null) {
+        return compiled;
+      }
+    }
+    IPlanarFilter compiled = LookupFilter.compile(filter, this.exact);
+    synchronized (this.tables) {
+      //another render may have compiled the same filter meanwhile
+      IPlanarFilter existing = this.tables.get(key);
+      if (existing != null) {
+        return existing;
+      }
+      this.tables.put(key, compiled);
+      if (this.tables.size() > CAPACITY) {
+        Iterator<IPlanarFilter> eldest = this.tables.values().iterator();
+        eldest.next();
+        eldest.remove();
+      }
+    }
+    return compiled;
+  }
+}
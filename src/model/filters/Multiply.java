@@ -2,15 +2,14 @@ package model.filters;
 
 import java.util.List;
 
-import model.IHSL;
 import model.ILayer;
 import model.IPixel;
-import swingdemo.RepresentationConverter;
+import model.PackedPixel;
 
 /**
  * Represents a multiply filter.
  */
-public class Multiply implements IFilter {
+public class Multiply implements IBlendFilter {
 
   private String name;
 
@@ -35,35 +34,53 @@ public class Multiply implements IFilter {
 
     for (int x = layers.indexOf(layer) + 1; x < layers.size() - 2; x++) {
       ILayer layerCurrent = layers.get(x);
-      layerCurrent.setCanvas(layerCurrent.getFilter().apply(layers, layerCurrent));
+      //render the lower layer without replacing its source pixels
+      IPixel[][] rendered = layerCurrent.getFilter().apply(layers, layerCurrent);
       for (int i = 0; i < layer.getHeight(); i++) {
         for (int j = 0; j < layer.getWidth(); j++) {
-          compPixels[i][j] = layers.get(i).getPixel(i, j);
+          compPixels[i][j] = rendered[i][j];
         }
       }
     }
 
     for (int z = 0; z < layer.getHeight(); z++) {
       for (int y = 0; y < layer.getWidth(); y++) {
-        IPixel holderRGBTop = pixels1[z][y];
-        IPixel holderRGBBottom = compPixels[z][y];
-
-        IHSL holderHSLTop = RepresentationConverter.convertRGBtoHSL(holderRGBTop.getRed(),
-                holderRGBTop.getGreen(), holderRGBTop.getBlue());
-        IHSL holderHSLBottom = RepresentationConverter.convertRGBtoHSL(holderRGBBottom.getRed(),
-                holderRGBBottom.getGreen(), holderRGBBottom.getBlue());
-
-        double hue = holderHSLTop.getHue();
-        double saturation = holderHSLTop.getSaturation();
-        double lightness = holderHSLTop.getLightness() * holderHSLBottom.getLightness();
-
-        finalPixels[z][y] = RepresentationConverter.convertHSLtoRGB(hue, saturation, lightness);
+        int blended = this.blend(PackedPixel.pack(pixels1[z][y]),
+                PackedPixel.pack(compPixels[z][y]));
+        finalPixels[z][y] = new PackedPixel(0xff000000 | blended);
       }
     }
 
     return finalPixels;
   }
 
+  /**
+   * Blends pixels of a layer with the composite beneath them, keeping the hue and saturation of
+   * the layer and taking the product of their lightness as the lightness.
+   *
+   * @param top    the pixels of the layer, replaced by the blended pixels.
+   * @param below  the composite of the layers beneath.
+   * @param length the number of pixels to blend.
+   */
+  @Override
+  public void blend(int[] top, int[] below, int length) {
+    for (int i = 0; i < length; i++) {
+      top[i] = this.blend(top[i], below[i]);
+    }
+  }
+
+  /**
+   * Blends one packed ARGB value with the one beneath it.
+   *
+   * @param top   the packed ARGB value of the layer.
+   * @param below the packed ARGB value beneath it.
+   * @return int the blended value, with the alpha of the layer.
+   */
+  private int blend(int top, int below) {
+    long lightness = Lightness.doubled(top) * (long) Lightness.doubled(below);
+    return Lightness.relight(top, lightness);
+  }
+
   /**
    * Gets the name of the filter.
    *
@@ -1,41 +1,51 @@
 package model.filters;
 
-
-import java.util.List;
-
-import model.ILayer;
-import model.IPixel;
-
-
 /**
  * Represents a filter with no effect. This is the default filter.
  */
-public class Normal implements IFilter {
-  private String name;
+public class Normal extends APixelFilter {
 
   /**
    * Constructs a normal filter and sets its name.
    */
   public Normal() {
-    this.name = "normal";
+    super("normal");
+  }
+
+  /**
+   * Applies the normal filter to one packed ARGB value.
+   *
+   * @param argb the packed ARGB value.
+   * @return int the filtered value.
+   */
+  @Override
+  public int applyArgb(int argb) {
+    return argb;
   }
 
   /**
-   * This applies no filter to the top Layer.
+   * Applies the normal filter, in place, to a span of packed ARGB values.
    *
-   * @param layers is original image.
-   * @return IImage is original image with filter applied.
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values to filter.
    */
-  public IPixel[][] apply(List<ILayer> layers, ILayer layer) {
-    return layer.getCanvas();
+  @Override
+  public void applyRow(int[] argb, int offset, int length) {
+    //the normal filter leaves every pixel as it is
   }
 
   /**
-   * Gets the name of the filter.
+   * Applies the normal filter to the given planes, which leaves them unchanged.
    *
-   * @return string name of the filter.
+   * @param red    the red plane.
+   * @param green  the green plane.
+   * @param blue   the blue plane.
+   * @param alpha  the alpha plane.
+   * @param length the number of pixels to filter.
    */
-  public String getName() {
-    return this.name;
+  @Override
+  public void applyPlanes(byte[] red, byte[] green, byte[] blue, byte[] alpha, int length) {
+    //the normal filter leaves every pixel as it is
   }
 }
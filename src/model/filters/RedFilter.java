@@ -1,47 +1,56 @@
 package model.filters;
 
-import java.util.List;
-
-import model.ILayer;
-import model.IPixel;
-import model.Pixel;
+import java.util.Arrays;
 
 /**
- * Represents a blue filter.
+ * Represents a red filter.
  */
-public class RedFilter implements IFilter {
-  private String name;
+public class RedFilter extends APixelFilter {
 
+  /**
+   * Constructs a red filter and sets its name.
+   */
   public RedFilter() {
-    this.name = "redFilter";
+    super("redFilter");
   }
 
   /**
-   * Applies the Red filter to the top layer.
+   * Applies the red filter to one packed ARGB value.
    *
-   * @param layers a list of layers.
-   * @return IPixel[][] is the new image.
+   * @param argb the packed ARGB value.
+   * @return int the filtered value.
    */
-  public IPixel[][] apply(List<ILayer> layers, ILayer layer) {
-    IPixel[][] pixels = layer.getCanvas();
-    IPixel[][] newPixels = new IPixel[pixels.length][pixels[0].length];
+  @Override
+  public int applyArgb(int argb) {
+    return argb & 0xffff0000;
+  }
 
-    for (int i = 0; i < pixels.length; i++) {
-      for (int j = 0; j < pixels[0].length; j++) {
-        IPixel pixel = pixels[i][j];
-        int color = pixel.getRed();
-        newPixels[i][j] = new Pixel(color, 0, 0, pixel.getAlpha());
-      }
+  /**
+   * Applies the red filter, in place, to a span of packed ARGB values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values to filter.
+   */
+  @Override
+  public void applyRow(int[] argb, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      argb[i] = this.applyArgb(argb[i]);
     }
-    return newPixels;
   }
 
   /**
-   * Gets the name of the filter.
+   * Applies the Red filter to the given planes by clearing the green and blue planes.
    *
-   * @return string name of the filter.
+   * @param red    the red plane.
+   * @param green  the green plane.
+   * @param blue   the blue plane.
+   * @param alpha  the alpha plane.
+   * @param length the number of pixels to filter.
    */
-  public String getName() {
-    return this.name;
+  @Override
+  public void applyPlanes(byte[] red, byte[] green, byte[] blue, byte[] alpha, int length) {
+    Arrays.fill(green, 0, length, (byte) 0);
+    Arrays.fill(blue, 0, length, (byte) 0);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package model.filters;
+
+/**
+ * Represents the kernels the brighten and darken filters fall back on without the vector API.
+ * Every kernel stops right at the start of its span, leaving the whole span to the filter's own
+ * kernel.
+ */
+final class ScalarKernels implements IRowKernels {
+
+  /**
+   * Leaves the whole span to the brighten intensity filter's own kernel.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value, as none are filtered.
+   */
+  @Override
+  public int brightenIntensity(int[] argb, int offset, int length) {
+    return offset;
+  }
+
+  /**
+   * Leaves the whole span to the darken intensity filter's own kernel.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value, as none are filtered.
+   */
+  @Override
+  public int darkenIntensity(int[] argb, int offset, int length) {
+    return offset;
+  }
+
+  /**
+   * Leaves the whole span to the brighten value filter's own kernel.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value, as none are filtered.
+   */
+  @Override
+  public int brightenValue(int[] argb, int offset, int length) {
+    return offset;
+  }
+
+  /**
+   * Leaves the whole span to the darken value filter's own kernel.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value, as none are filtered.
+   */
+  @Override
+  public int darkenValue(int[] argb, int offset, int length) {
+    return offset;
+  }
+
+  /**
+   * Leaves the whole span to the brighten luma filter's own kernel.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value, as none are filtered.
+   */
+  @Override
+  public int brightenLuma(int[] argb, int offset, int length) {
+    return offset;
+  }
+
+  /**
+   * Leaves the whole span to the darken luma filter's own kernel.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value, as none are filtered.
+   */
+  @Override
+  public int darkenLuma(int[] argb, int offset, int length) {
+    return offset;
+  }
+}
@@ -0,0 +1,86 @@
+package model;
+
+import model.filters.BrightenValue;
+import model.filters.RedFilter;
+
+/**
+ * Benchmarks ImageProcessorModel.compressImage across canvas sizes and numbers of layers.
+ * Every layer is repainted with translucent pixels before each timed export, so each export
+ * filters and composites every layer rather than copying the composite it cached. Prints the time
+ * per pixel of each layer, which should stay roughly flat if export cost is linear in layers x
+ * pixels, and exits with a non-zero status if it grows with the canvas or if extra layers cost
+ * nothing.
+ */
+public class CompressImageBenchmark {
+
+  private static final int[] SIZES = {250, 500, 1000, 2000};
+  private static final int[] LAYERS = {1, 3};
+  private static final int RUNS = 5;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args unused.
+   */
+  public static void main(String[] args) {
+    double first = 0;
+    double last = 0;
+    double[] perLayer = new double[LAYERS.length];
+    for (int size : SIZES) {
+      for (int x = 0; x < LAYERS.length; x++) {
+        ImageProcessorModel model = new ImageProcessorModel(size, size);
+        if (LAYERS[x] > 1) {
+          model.addLayer("red", new RedFilter());
+          model.addLayer("bright", new BrightenValue());
+        }
+
+        //warm up before timing
+        paint(model, 0);
+        model.compressImage();
+        long best = Long.MAX_VALUE;
+        for (int i = 1; i <= RUNS; i++) {
+          paint(model, i);
+          long start = System.nanoTime();
+          model.compressImage();
+          best = Math.min(best, System.nanoTime() - start);
+        }
+        perLayer[x] = (double) best / ((long) size * size * LAYERS[x]);
+        System.out.printf("%5d x %-5d %d layers %10.2f ms %8.2f ns/layer pixel%n",
+                size, size, LAYERS[x], best / 1e6, perLayer[x]);
+      }
+      if (first == 0) {
+        first = perLayer[LAYERS.length - 1];
+      }
+      last = perLayer[LAYERS.length - 1];
+    }
+    //64x the pixels; a quadratic export would be ~64x slower per pixel here
+    if (last > first * 4) {
+      System.out.println("Export cost grows faster than the pixel count");
+      System.exit(1);
+    }
+    //a layer that is not composited again would make the extra layers almost free
+    if (perLayer[LAYERS.length - 1] < perLayer[0] / 2) {
+      System.out.println("Export cost does not grow with the number of layers");
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Writes new translucent pixels over every layer of a model, so all of it has to be filtered
+   * and composited again.
+   *
+   * @param model the model to paint.
+   * @param run   the run the pixels are painted for, so each run paints different values.
+   */
+  private static void paint(ImageProcessorModel model, int run) {
+    int[] row = new int[model.getWidth()];
+    for (ILayer layer : model.getLayers()) {
+      for (int i = 0; i < model.getHeight(); i++) {
+        for (int j = 0; j < row.length; j++) {
+          row[j] = PackedPixel.pack((i + run) & 0xff, (j + run) & 0xff, (i ^ j) & 0xff, 128);
+        }
+        layer.writeRow(i, 0, row.length, row, 0);
+      }
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Represents tests for the FramePool class.
+ */
+public class FramePoolTest {
+
+  @Test
+  public void testRecycledFrameIsReused() {
+    FramePool pool = new FramePool();
+    int[] frame = pool.borrow(3, 4);
+    assertEquals(12, frame.length);
+    pool.recycle(frame, 3, 4);
+    //recycling the same frame twice must not hand it out twice
+    pool.recycle(frame, 3, 4);
+    assertEquals(1, pool.size(3, 4));
+    assertSame(frame, pool.borrow(3, 4));
+    assertNotSame(frame, pool.borrow(3, 4));
+  }
+
+  @Test
+  public void testFramesAreKeptBySize() {
+    FramePool pool = new FramePool();
+    pool.recycle(new int[12], 3, 4);
+    assertEquals(0, pool.size(4, 3));
+    assertEquals(1, pool.size(3, 4));
+  }
+
+  @Test
+  public void testPoolKeepsAtMostLimit() {
+    FramePool pool = new FramePool(2);
+    for (int i = 0; i < 5; i++) {
+      pool.recycle(new int[6], 2, 3);
+    }
+    assertEquals(2, pool.size(2, 3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRecycleWrongSize() {
+    new FramePool().recycle(new int[5], 2, 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeLimit() {
+    new FramePool(-1);
+  }
+}
@@ -3,9 +3,16 @@ package model;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import model.filters.BlueFilter;
 import model.filters.BrightenIntensity;
@@ -14,8 +21,10 @@ import model.filters.BrightenValue;
 import model.filters.DarkenIntensity;
 import model.filters.DarkenLuma;
 import model.filters.DarkenValue;
+import model.filters.FilterChain;
 import model.filters.GreenFilter;
 import model.filters.IFilter;
+import model.filters.IPixelFilter;
 import model.filters.Multiply;
 import model.filters.Normal;
 import model.filters.RedFilter;
@@ -23,6 +32,9 @@ import model.filters.Difference;
 import model.filters.Screen;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Represents tests for the model class.
@@ -756,7 +768,508 @@ public class ImageProcessorModelTest {
     assertEquals(50, model1.getLayer("1").getPixel(0, 0).getRed());
   }
 
+  @Test
+  public void compressImageMatchesSaveCanvas() {
+    Pixel[][] pixels = new Pixel[2][2];
+    pixels[0][0] = new Pixel(50, 0, 0, 255);
+    pixels[0][1] = new Pixel(0, 50, 0, 255);
+    pixels[1][0] = new Pixel(0, 0, 50, 255);
+    pixels[1][1] = new Pixel(50, 50, 50, 255);
+    PPMImage image = new PPMImage(pixels, 2, 2);
+
+    ImageProcessorModel model = new ImageProcessorModel(3, 4);
+    model.addLayer("top", redFilter);
+    model.addImage(1, 1, image, model.getLayer("top"));
+
+    BufferedImage compressed = model.compressImage();
+    IPixel[][] canvas = model.saveCanvas();
+    assertEquals(4, compressed.getWidth());
+    assertEquals(3, compressed.getHeight());
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 4; j++) {
+        assertEquals(PackedPixel.pack(canvas[i][j]), compressed.getRGB(j, i));
+      }
+    }
+    assertEquals(PackedPixel.pack(50, 0, 0, 255), compressed.getRGB(2, 2));
+  }
+
+  @Test
+  public void saveCanvasKeepsSourcePixels() {
+    Pixel[][] pixels = new Pixel[1][1];
+    pixels[0][0] = new Pixel(50, 40, 30, 255);
+    PPMImage image = new PPMImage(pixels, 1, 1);
+
+    ImageProcessorModel model = new ImageProcessorModel(2, 2);
+    model.addLayer("top", redFilter);
+    model.addImage(0, 0, image, model.getLayer("top"));
+
+    IPixel[][] first = model.saveCanvas();
+    IPixel[][] second = model.saveCanvas();
+    assertEquals(50, first[0][0].getRed());
+    assertEquals(0, first[0][0].getGreen());
+    assertEquals(0, second[0][0].getGreen());
+    assertEquals(40, model.getLayer("top").getPixel(0, 0).getGreen());
+
+    model.setFilter("top", greenFilter);
+    assertEquals(0, model.saveCanvas()[0][0].getRed());
+    assertEquals(40, model.saveCanvas()[0][0].getGreen());
+  }
+
+  @Test
+  public void saveCanvasRecompositesDirtyRegions() {
+    Pixel[][] pixels = new Pixel[2][2];
+    pixels[0][0] = new Pixel(50, 0, 0, 255);
+    pixels[0][1] = new Pixel(0, 50, 0, 255);
+    pixels[1][0] = new Pixel(0, 0, 50, 255);
+    pixels[1][1] = new Pixel(50, 50, 50, 255);
+    PPMImage image = new PPMImage(pixels, 2, 2);
+
+    ImageProcessorModel model = new ImageProcessorModel(6, 6);
+    model.addLayer("top", normal);
+    model.addImage(0, 0, image, model.getLayer("top"));
+    assertEquals(50, model.saveCanvas()[0][0].getRed());
+
+    model.addImage(3, 4, image, model.getLayer("top"));
+    IPixel[][] canvas = model.saveCanvas();
+    assertEquals(50, canvas[0][0].getRed());
+    assertEquals(50, canvas[4][3].getRed());
+    assertEquals(50, canvas[5][3].getBlue());
+    assertEquals(0, canvas[3][3].getAlpha());
+
+    model.setFilter("top", blueFilter);
+    canvas = model.saveCanvas();
+    assertEquals(0, canvas[4][3].getRed());
+    assertEquals(50, canvas[5][3].getBlue());
+  }
+
+  @Test
+  public void parallelRenderMatchesSequential() {
+    Pixel[][] pixels = new Pixel[40][30];
+    for (int i = 0; i < 40; i++) {
+      for (int j = 0; j < 30; j++) {
+        pixels[i][j] = new Pixel((i * 7) % 256, (j * 11) % 256, (i * j) % 256, 255);
+      }
+    }
+    PPMImage image = new PPMImage(pixels, 40, 30);
+
+    ImageProcessorModel sequential = new ImageProcessorModel(64, 48);
+    ImageProcessorModel parallel = new ImageProcessorModel(64, 48);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    parallel.setRenderPool(pool);
+    for (ImageProcessorModel model : List.of(sequential, parallel)) {
+      model.addLayer("bright", brightenValue);
+      model.addLayer("dark", darkenLuma);
+      model.addLayer("red", redFilter);
+      model.addImage(3, 5, image, model.getLayer("bright"));
+      model.addImage(10, 20, image, model.getLayer("dark"));
+      model.addImage(0, 30, image, model.getLayer("red"));
+      model.setFilter("dark", difference);
+    }
+
+    IPixel[][] actual = parallel.saveCanvas();
+    pool.shutdown();
+    RenderAssert.assertSameCanvas(sequential.saveCanvas(), actual);
+  }
+
+  @Test
+  public void newProjectLayersAreTiled() {
+    ImageProcessorModel model = new ImageProcessorModel(10, 10);
+    model.newProject(20000, 20000, 255);
+    model.addLayer("top", redFilter);
+    assertEquals(0, model.getLayer("top").getPixel(19999, 19999).getAlpha());
+
+    model.setStorage(PackedCanvas::new);
+    model.newProject(2, 2, 255);
+    assertEquals(255, model.getLayer("background").getPixel(1, 1).getRed());
+  }
+
+  @Test
+  public void saveCanvasSkipsCoveredLayers() {
+    CountingFilter counting = new CountingFilter(normal);
+    Pixel[][] pixels = new Pixel[100][100];
+    for (int i = 0; i < 100; i++) {
+      for (int j = 0; j < 100; j++) {
+        pixels[i][j] = new Pixel(i, j, 0, 255);
+      }
+    }
+    ImageProcessorModel model = new ImageProcessorModel(100, 100);
+    model.setFilter("background", counting);
+    model.addImage(0, 0, new PPMImage(pixels, 100, 100), model.getLayer("background"));
+    model.addLayer("photo", redFilter);
+    model.addImage(0, 0, new PPMImage(pixels, 100, 100), model.getLayer("photo"));
+
+    IPixel[][] canvas = model.saveCanvas();
+    assertEquals(0, counting.applied);
+    assertEquals(99, canvas[99][0].getRed());
+    assertEquals(0, canvas[99][0].getGreen());
+
+    //once the photo is moved down the background is uncovered and rendered
+    model.swapLayers(0, 1);
+    model.saveCanvas();
+    assertTrue(counting.applied > 0);
+  }
+
+  @Test
+  public void saveCanvasFiltersOnlyContent() {
+    CountingFilter counting = new CountingFilter(redFilter);
+    Pixel[][] pixels = new Pixel[10][10];
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 10; j++) {
+        pixels[i][j] = new Pixel(100, 100, 100, 255);
+      }
+    }
+    ImageProcessorModel model = new ImageProcessorModel(200, 200);
+    model.addLayer("sticker", counting);
+    model.addImage(20, 30, new PPMImage(pixels, 10, 10), model.getLayer("sticker"));
+
+    IPixel[][] canvas = model.saveCanvas();
+    //the sticker, plus a blank pixel here and there, rather than the whole canvas
+    assertTrue(counting.filtered < 200);
+    assertEquals(100, canvas[30][20].getRed());
+    assertEquals(0, canvas[30][20].getGreen());
+    //nothing shows through the transparent parts of the layers
+    assertEquals(PackedPixel.pack(255, 255, 255, 0), PackedPixel.pack(canvas[0][0]));
+  }
+
+  @Test
+  public void saveCanvasFillsConstantLayers() {
+    CountingFilter counting = new CountingFilter(blueFilter);
+    ImageProcessorModel model = new ImageProcessorModel(300, 300);
+    model.getLayer("background").firstLayer();
+    model.setFilter("background", counting);
+
+    IPixel[][] canvas = model.saveCanvas();
+    assertEquals(1, counting.filtered);
+    assertNull(model.getLayer("background").getRendered());
+    assertEquals(0, canvas[299][299].getRed());
+    assertEquals(255, canvas[299][299].getBlue());
+    assertEquals(255, canvas[299][299].getAlpha());
+  }
+
+  @Test
+  public void compressImageReusesRecycledFrame() {
+    Pixel[][] pixels = new Pixel[1][1];
+    pixels[0][0] = new Pixel(50, 40, 30, 255);
+    PPMImage image = new PPMImage(pixels, 1, 1);
+
+    ImageProcessorModel model = new ImageProcessorModel(2, 3);
+    BufferedImage first = model.compressImage();
+    int[] frame = ((DataBufferInt) first.getRaster().getDataBuffer()).getData();
+    model.recycleImage(first);
+    model.addImage(2, 1, image, model.getLayer("background"));
+
+    BufferedImage second = model.compressImage();
+    assertSame(frame, ((DataBufferInt) second.getRaster().getDataBuffer()).getData());
+    assertEquals(PackedPixel.pack(50, 40, 30, 255), second.getRGB(2, 1));
+    assertEquals(PackedPixel.pack(255, 255, 255, 0), second.getRGB(0, 0));
+    //images of another size are not the model's to reuse
+    model.recycleImage(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+    model.recycleImage(null);
+  }
+
+  @Test
+  public void setFilterKeepsOnlyLatest() {
+    ImageProcessorModel model = new ImageProcessorModel(4, 4);
+    model.addLayer("top", redFilter);
+    model.saveCanvas();
+    long version = model.getLayer("top").getVersion();
+
+    //a filter replaced before the next render, and then set back, leaves the layer as it was
+    model.setFilter("top", blueFilter);
+    model.setFilter("top", new RedFilter());
+    model.saveCanvas();
+    assertEquals(version, model.getLayer("top").getVersion());
+
+    model.setFilter("top", greenFilter);
+    model.setFilter("top", blueFilter);
+    assertEquals(blueFilter, model.getLayer("top").getFilter());
+    assertTrue(model.getLayer("top").getVersion() > version);
+  }
 
+  @Test
+  public void pooledRenderSkipsLayersCoveredByPlanarLayers() {
+    CountingFilter counting = new CountingFilter(normal);
+    Pixel[][] pixels = new Pixel[100][100];
+    for (int i = 0; i < 100; i++) {
+      for (int j = 0; j < 100; j++) {
+        pixels[i][j] = new Pixel(i, j, 1, i < 64 ? 255 : 128);
+      }
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    ImageProcessorModel pooled = new ImageProcessorModel(100, 100);
+    ImageProcessorModel sequential = new ImageProcessorModel(100, 100);
+    pooled.setRenderPool(pool);
+    for (ImageProcessorModel model : new ImageProcessorModel[] {pooled, sequential}) {
+      model.setFilter("background", counting);
+      model.addImage(0, 0, new PPMImage(pixels, 100, 100), model.getLayer("background"));
+      for (String name : new String[] {"red", "bright", "dark"}) {
+        model.addLayer(name, name.equals("red") ? redFilter
+                : name.equals("bright") ? brightenValue : darkenLuma);
+        model.addImage(0, 0, new PPMImage(pixels, 100, 100), model.getLayer(name));
+      }
+    }
+
+    IPixel[][] canvas = pooled.saveCanvas();
+    pool.shutdown();
+    //only the bottom row of tiles, where the layers above are translucent, is filtered
+    assertEquals(2, counting.applied);
+    RenderAssert.assertSameCanvas(sequential.saveCanvas(), canvas);
+  }
+
+  @Test
+  public void saveCanvasBlendsTranslucentLayers() {
+    Pixel[][] pixels = new Pixel[1][2];
+    pixels[0][0] = new Pixel(0, 0, 0, 128);
+    pixels[0][1] = new Pixel(0, 0, 0, 0);
+    ImageProcessorModel model = new ImageProcessorModel(2, 2);
+    model.getLayer("background").firstLayer();
+    model.addLayer("shade");
+    model.addImage(0, 0, new PPMImage(pixels, 1, 2), model.getLayer("shade"));
+
+    IPixel[][] canvas = model.saveCanvas();
+    //half of the white background shows through, and none of the shade where it is transparent
+    assertEquals(PackedPixel.pack(127, 127, 127, 255), PackedPixel.pack(canvas[0][0]));
+    assertEquals(PackedPixel.pack(255, 255, 255, 255), PackedPixel.pack(canvas[0][1]));
+    assertEquals(PackedPixel.pack(255, 255, 255, 255), PackedPixel.pack(canvas[1][1]));
+  }
 
+  @Test
+  public void saveCanvasBlendsWithCompositeBeneath() {
+    Pixel[][] photo = {{new Pixel(200, 100, 50, 255)}};
+    Pixel[][] grey = {{new Pixel(50, 50, 50, 255)}};
+    Pixel[][] dark = {{new Pixel(10, 10, 10, 255)}};
+    ImageProcessorModel model = new ImageProcessorModel(1, 2);
+    model.getLayer("background").firstLayer();
+    model.addLayer("photo");
+    model.addImage(0, 0, new PPMImage(photo, 1, 1), model.getLayer("photo"));
+    model.addLayer("grey", difference);
+    model.addImage(0, 0, new PPMImage(grey, 1, 1), model.getLayer("grey"));
+    model.addLayer("dark", difference);
+    model.addImage(0, 0, new PPMImage(dark, 1, 1), model.getLayer("dark"));
+
+    IPixel[][] canvas = model.saveCanvas();
+    //each difference layer is taken from everything beneath it, blend layers included
+    assertEquals(PackedPixel.pack(140, 40, 10, 255), PackedPixel.pack(canvas[0][0]));
+    //and leaves the composite alone where it has no content
+    assertEquals(PackedPixel.pack(255, 255, 255, 255), PackedPixel.pack(canvas[0][1]));
+  }
 
-}
\ No newline at end of file
+  @Test
+  public void blendStackFiltersLowerLayersOnce() {
+    CountingFilter counting = new CountingFilter(normal);
+    Pixel[][] pixels = new Pixel[64][64];
+    Pixel[][] black = new Pixel[64][64];
+    for (int i = 0; i < 64; i++) {
+      for (int j = 0; j < 64; j++) {
+        pixels[i][j] = new Pixel(i, j, 3, 255);
+        black[i][j] = new Pixel(0, 0, 0, 255);
+      }
+    }
+    ImageProcessorModel model = new ImageProcessorModel(64, 64);
+    model.setFilter("background", counting);
+    model.addImage(0, 0, new PPMImage(pixels, 64, 64), model.getLayer("background"));
+    for (int x = 0; x < 8; x++) {
+      model.addLayer("blend" + x, difference);
+      model.addImage(0, 0, new PPMImage(black, 64, 64), model.getLayer("blend" + x));
+    }
+
+    IPixel[][] canvas = model.saveCanvas();
+    //the blend layers share the composite beneath them instead of re-filtering the background
+    assertEquals(1, counting.applied);
+    assertEquals(PackedPixel.pack(17, 42, 3, 255), PackedPixel.pack(canvas[17][42]));
+  }
+
+  @Test
+  public void snapshotRendersWhileProjectIsEdited() throws Exception {
+    Pixel[][] pixels = new Pixel[70][70];
+    for (int i = 0; i < 70; i++) {
+      for (int j = 0; j < 70; j++) {
+        pixels[i][j] = new Pixel(i, j, 9, 255);
+      }
+    }
+    ImageProcessorModel model = new ImageProcessorModel(70, 70);
+    model.getLayer("background").firstLayer();
+    model.addLayer("photo");
+    model.addImage(0, 0, new PPMImage(pixels, 70, 70), model.getLayer("photo"));
+    IPixel[][] before = model.saveCanvas();
+    IProjectSnapshot snapshot = model.snapshot();
+    assertSame(snapshot, model.snapshot());
+
+    ExecutorService worker = Executors.newSingleThreadExecutor();
+    Future<IPixel[][]> saved = worker.submit(snapshot::saveCanvas);
+    model.getLayer("photo").writeRow(5, 0, 3, new int[3], 0);
+    model.setFilter("photo", redFilter);
+    model.addLayer("caption");
+    IPixel[][] after = saved.get();
+    worker.shutdown();
+
+    RenderAssert.assertSameCanvas(before, after);
+    assertEquals(2, snapshot.getLayerCount());
+    assertEquals("background,photo", snapshot.listLayers());
+    IProjectSnapshot next = model.snapshot();
+    assertTrue(next.getVersion() > snapshot.getVersion());
+    assertEquals(0, next.getLayer("photo").getPixel(5, 1).getRed());
+  }
+
+  @Test
+  public void listLayersIsInOrder() {
+    ImageProcessorModel model = new ImageProcessorModel(2, 2);
+    for (int i = 0; i < 20; i++) {
+      model.addLayer("layer" + i);
+    }
+    model.swapLayers("layer3", "background");
+    StringBuilder expected = new StringBuilder("layer3");
+    for (int i = 0; i < 20; i++) {
+      expected.append(",").append(i == 3 ? "background" : "layer" + i);
+    }
+    assertEquals(expected.toString(), model.listLayers());
+    assertEquals(4, model.getLayerPosition("background"));
+    assertEquals(0, model.getLayerPosition("layer3"));
+  }
+
+  @Test
+  public void setFilterReplacesChainWithAnotherChain() {
+    Pixel[][] pixels = {{new Pixel(100, 50, 25, 255)}};
+    ImageProcessorModel model = new ImageProcessorModel(1, 1);
+    model.addImage(0, 0, new PPMImage(pixels, 1, 1), model.getLayer("background"));
+    model.setFilter("background", new FilterChain(new RedFilter(), new BrightenValue()));
+    assertEquals(PackedPixel.pack(200, 100, 100, 255), PackedPixel.pack(model.saveCanvas()[0][0]));
+
+    //a chain of other filters is a different filter, even though it is the same kind
+    model.setFilter("background", new FilterChain(new GreenFilter(), new BrightenValue()));
+    assertEquals(PackedPixel.pack(50, 100, 50, 255), PackedPixel.pack(model.saveCanvas()[0][0]));
+  }
+
+  @Test
+  public void lookupTablesRenderLikeFilters() {
+    Pixel[][] pixels = new Pixel[20][30];
+    for (int i = 0; i < 20; i++) {
+      for (int j = 0; j < 30; j++) {
+        pixels[i][j] = new Pixel(i * 12, j * 8, 1 + (i + j) * 5, j % 3 == 0 ? 120 : 255);
+      }
+    }
+    ImageProcessorModel plain = new ImageProcessorModel(20, 30);
+    ImageProcessorModel compiled = new ImageProcessorModel(20, 30);
+    compiled.setLookupTables(true, true);
+    for (ImageProcessorModel model : new ImageProcessorModel[] {plain, compiled}) {
+      model.addLayer("top");
+      model.addImage(0, 0, new PPMImage(pixels, 20, 30), model.getLayer("background"));
+      model.addImage(5, 3, new PPMImage(pixels, 20, 30), model.getLayer("top"));
+      model.setFilter("background", new DarkenLuma());
+      model.setFilter("top", new FilterChain(new DarkenLuma(), new BlueFilter()));
+    }
+    IPixel[][] expected = plain.saveCanvas();
+    RenderAssert.assertSameCanvas(expected, compiled.saveCanvas());
+    IPixel[][] snapshot = compiled.snapshot().saveCanvas();
+    assertEquals(PackedPixel.pack(expected[7][9]), PackedPixel.pack(snapshot[7][9]));
+  }
+
+  @Test
+  public void cachedResultsAreStoredLikeTheirLayers() {
+    Pixel[][] pixels = new Pixel[4][4];
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 4; j++) {
+        pixels[i][j] = new Pixel(100, 150, 200, 255);
+      }
+    }
+    ImageProcessorModel model = new ImageProcessorModel(8, 8);
+    model.addLayer("tiled", brightenValue);
+    model.setStorage(RunCanvas::new);
+    model.addLayer("runs", darkenLuma);
+    model.addImage(0, 0, new PPMImage(pixels, 4, 4), model.getLayer("tiled"));
+    model.addImage(4, 4, new PPMImage(pixels, 4, 4), model.getLayer("runs"));
+    model.saveCanvas();
+    assertTrue(model.getLayer("tiled").getRendered() instanceof TiledCanvas);
+    assertTrue(model.getLayer("runs").getRendered() instanceof RunCanvas);
+  }
+
+  @Test
+  public void cachesOnlyHoldTheContentBounds() {
+    Pixel[][] pixels = new Pixel[20][20];
+    for (int i = 0; i < 20; i++) {
+      for (int j = 0; j < 20; j++) {
+        pixels[i][j] = new Pixel(100, 150, 200, 255);
+      }
+    }
+    ImageProcessorModel model = new ImageProcessorModel(400, 300);
+    model.addLayer("sticker", brightenValue);
+    model.addImage(50, 60, new PPMImage(pixels, 20, 20), model.getLayer("sticker"));
+    IPixel[][] canvas = model.saveCanvas();
+    ICanvas rendered = model.getLayer("sticker").getRendered();
+    assertEquals(20, rendered.getHeight());
+    assertEquals(20, rendered.getWidth());
+    int sticker = ((IPixelFilter) brightenValue).applyArgb(PackedPixel.pack(100, 150, 200, 255));
+    assertEquals(sticker, PackedPixel.pack(canvas[60][50]));
+    assertEquals(sticker, PackedPixel.pack(canvas[79][69]));
+    assertEquals(0, PackedPixel.pack(canvas[80][50]) >>> 24);
+
+    //the cache moves with the content, and pixels left blank filter like the rest of the blank
+    model.addImage(250, 380, new PPMImage(pixels, 20, 20), model.getLayer("sticker"));
+    canvas = model.saveCanvas();
+    rendered = model.getLayer("sticker").getRendered();
+    assertEquals(340, rendered.getHeight());
+    assertEquals(220, rendered.getWidth());
+    assertEquals(sticker, PackedPixel.pack(canvas[60][50]));
+    assertEquals(sticker, PackedPixel.pack(canvas[399][269]));
+    assertEquals(0, PackedPixel.pack(canvas[200][200]) >>> 24);
+  }
+
+  @Test
+  public void loadProjectKeepsSettings() {
+    ImageProcessorModel model = new ImageProcessorModel(4, 4);
+    model.setStorage(RunCanvas::new);
+    HashMap<String, ILayer> nameLayers = new HashMap<String, ILayer>();
+    List<ILayer> orderLayers = new ArrayList<ILayer>();
+    ILayer loaded = new Layer("loaded", normal, 3, 5);
+    nameLayers.put("loaded", loaded);
+    orderLayers.add(loaded);
+    model.loadProject(3, 5, nameLayers, orderLayers);
+    assertEquals(3, model.getHeight());
+    assertEquals(5, model.getWidth());
+    assertSame(loaded, model.getLayer("loaded"));
+
+    Pixel[][] pixels = {{new Pixel(10, 20, 30, 255)}};
+    model.addLayer("added", brightenValue);
+    model.addImage(1, 1, new PPMImage(pixels, 1, 1), model.getLayer("added"));
+    model.saveCanvas();
+    assertTrue(model.getLayer("added").getRendered() instanceof RunCanvas);
+  }
+
+  @Test
+  public void projectDoesNotKeepSnapshotsAlive() {
+    ImageProcessorModel model = new ImageProcessorModel(4, 4);
+    model.addLayer("top", brightenValue);
+    model.getLayer("top").writeRow(0, 0, 1, new int[] {PackedPixel.pack(1, 2, 3, 255)}, 0);
+    WeakReference<IProjectSnapshot> snapshot = new WeakReference<IProjectSnapshot>(
+            model.snapshot());
+    for (int i = 0; i < 100 && snapshot.get() != null; i++) {
+      System.gc();
+    }
+    assertNull(snapshot.get());
+  }
+
+  /**
+   * Represents a filter that applies another filter, counting the layers and pixels it is given.
+   */
+  private static class CountingFilter implements IFilter {
+    private final IFilter filter;
+    private int applied;
+    private int filtered;
+
+    CountingFilter(IFilter filter) {
+      this.filter = filter;
+    }
+
+    @Override
+    public IPixel[][] apply(List<ILayer> layers, ILayer layer) {
+      this.applied++;
+      this.filtered += layer.getHeight() * layer.getWidth();
+      return this.filter.apply(layers, layer);
+    }
+
+    @Override
+    public String getName() {
+      return "counting";
+    }
+  }
+}
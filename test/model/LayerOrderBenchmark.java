@@ -0,0 +1,74 @@
+package model;
+
+import java.util.Random;
+
+/**
+ * Benchmarks looking up, swapping and moving layers in projects of up to 100,000 layers.
+ * Prints the time per operation for each project size, which should only grow with the
+ * logarithm of the number of layers, and exits with a non-zero status if it grows with the
+ * number of layers.
+ */
+public class LayerOrderBenchmark {
+
+  private static final int[] SIZES = {1000, 10000, 100000};
+  private static final int OPERATIONS = 20000;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args unused.
+   */
+  public static void main(String[] args) {
+    double first = 0;
+    double last = 0;
+    for (int size : SIZES) {
+      ImageProcessorModel model = new ImageProcessorModel(1, 1);
+      for (int i = 1; i < size; i++) {
+        model.addLayer("layer" + i);
+      }
+      LayerOrder order = (LayerOrder) model.getLayers();
+      Random random = new Random(1);
+
+      //warm up before timing
+      run(model, order, random, size);
+      long best = Long.MAX_VALUE;
+      for (int i = 0; i < 5; i++) {
+        long start = System.nanoTime();
+        run(model, order, random, size);
+        best = Math.min(best, System.nanoTime() - start);
+      }
+      double perOperation = (double) best / OPERATIONS;
+      System.out.printf("%7d layers %10.2f ms %8.2f ns/operation%n",
+              size, best / 1e6, perOperation);
+      if (first == 0) {
+        first = perOperation;
+      }
+      last = perOperation;
+    }
+    //100x the layers; a linear search would be ~100x slower per operation here
+    if (last > first * 10) {
+      System.out.println("Layer operations grow with the number of layers");
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Looks up the position of a layer, swaps two layers and moves one, a number of times.
+   *
+   * @param model  the project.
+   * @param order  the order of its layers.
+   * @param random the source of the layers to work on.
+   * @param size   the number of layers.
+   */
+  private static void run(ImageProcessorModel model, LayerOrder order, Random random, int size) {
+    for (int i = 0; i < OPERATIONS / 3; i++) {
+      String a = "layer" + (1 + random.nextInt(size - 1));
+      String b = "layer" + (1 + random.nextInt(size - 1));
+      model.getLayerPosition(a);
+      if (!a.equals(b)) {
+        model.swapLayers(a, b);
+      }
+      order.move(random.nextInt(size), random.nextInt(size));
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import model.filters.Normal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represents tests for the LayerOrder class.
+ */
+public class LayerOrderTest {
+
+  @Test
+  public void testMatchesList() {
+    Random random = new Random(3);
+    LayerOrder order = new LayerOrder();
+    List<ILayer> expected = new ArrayList<ILayer>();
+    for (int step = 0; step < 5000; step++) {
+      int op = random.nextInt(5);
+      if (op <= 1 || expected.isEmpty()) {
+        ILayer layer = new Layer("l" + step, new Normal(), 1, 1);
+        int index = random.nextInt(expected.size() + 1);
+        order.add(index, layer);
+        expected.add(index, layer);
+      } else if (op == 2) {
+        int index = random.nextInt(expected.size());
+        assertEquals(expected.remove(index), order.remove(index));
+      } else if (op == 3) {
+        int from = random.nextInt(expected.size());
+        int to = random.nextInt(expected.size());
+        order.move(from, to);
+        expected.add(to, expected.remove(from));
+      } else {
+        int i = random.nextInt(expected.size());
+        int j = random.nextInt(expected.size());
+        Collections.swap(order, i, j);
+        Collections.swap(expected, i, j);
+      }
+      ILayer probe = expected.get(random.nextInt(expected.size()));
+      assertEquals(expected.indexOf(probe), order.indexOf(probe));
+    }
+    assertEquals(expected, order);
+    assertEquals(expected, new ArrayList<ILayer>(order));
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(i, order.indexOf(expected.get(i)));
+    }
+  }
+
+  @Test
+  public void testRemovedLayerIsNotFound() {
+    LayerOrder order = new LayerOrder();
+    ILayer layer = new Layer("gone", new Normal(), 1, 1);
+    order.add(layer);
+    order.add(new Layer("kept", new Normal(), 1, 1));
+    assertTrue(order.contains(layer));
+    order.remove(0);
+    assertFalse(order.contains(layer));
+    assertEquals(-1, order.indexOf(layer));
+    assertEquals(1, order.size());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfRange() {
+    new LayerOrder().get(0);
+  }
+}
@@ -0,0 +1,316 @@
+package model;
+
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+import model.filters.Normal;
+import model.filters.RedFilter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represents tests for the Layer class.
+ */
+public class LayerTest {
+
+  @Test
+  public void testBlankLayer() {
+    ILayer layer = new Layer("blank", new Normal(), 3, 4);
+    assertEquals(255, layer.getPixel(2, 3).getRed());
+    assertEquals(0, layer.getPixel(2, 3).getAlpha());
+    assertEquals(PackedPixel.pack(255, 255, 255, 0), layer.getArgb(0, 0));
+
+    layer.firstLayer();
+    assertEquals(255, layer.getPixel(2, 3).getAlpha());
+  }
+
+  @Test
+  public void testAddImageIsPacked() {
+    Pixel[][] pixels = new Pixel[2][2];
+    pixels[0][0] = new Pixel(50, 0, 0, 255);
+    pixels[0][1] = new Pixel(0, 50, 0, 255);
+    pixels[1][0] = new Pixel(0, 0, 50, 255);
+    pixels[1][1] = new Pixel(50, 50, 50, 255);
+    PPMImage image = new PPMImage(pixels, 2, 2);
+
+    ILayer layer = new Layer("image", new Normal(), 3, 3);
+    layer.addImage(image, 2, 1);
+
+    assertEquals(PackedPixel.pack(50, 0, 0, 255), layer.getArgb(1, 2));
+    assertEquals(PackedPixel.pack(0, 0, 50, 255), layer.getArgb(2, 2));
+    assertEquals(0, layer.getPixel(1, 1).getAlpha());
+  }
+
+  @Test
+  public void testReadAndWriteRow() {
+    ILayer layer = new Layer("rows", new Normal(), 2, 4);
+    int[] row = {PackedPixel.pack(1, 2, 3, 4), PackedPixel.pack(5, 6, 7, 8)};
+    layer.writeRow(1, 1, 2, row, 0);
+
+    int[] read = new int[4];
+    layer.readRow(1, 0, 4, read, 0);
+    assertEquals(PackedPixel.pack(255, 255, 255, 0), read[0]);
+    assertEquals(row[0], read[1]);
+    assertEquals(row[1], read[2]);
+    assertEquals(6, layer.getPixel(1, 2).getGreen());
+  }
+
+  @Test
+  public void testCanvasRoundTrip() {
+    ILayer layer = new Layer("red", new RedFilter(), 2, 2);
+    IPixel[][] canvas = new IPixel[2][2];
+    canvas[0][0] = new Pixel(10, 20, 30, 255);
+    canvas[0][1] = new Pixel(40, 50, 60, 255);
+    canvas[1][0] = new Pixel(70, 80, 90, 255);
+    canvas[1][1] = new Pixel(100, 110, 120, 0);
+    layer.setCanvas(canvas);
+
+    layer.setCanvas(layer.getFilter().apply(null, layer));
+    int[] expected = {PackedPixel.pack(10, 0, 0, 255), PackedPixel.pack(40, 0, 0, 255)};
+    int[] actual = new int[2];
+    layer.readRow(0, 0, 2, actual, 0);
+    assertArrayEquals(expected, actual);
+    assertEquals(100, layer.getPixel(1, 1).getRed());
+    assertEquals(0, layer.getPixel(1, 1).getAlpha());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetPixelOutOfBounds() {
+    new Layer("small", new Normal(), 2, 2).getPixel(0, 2);
+  }
+
+  @Test
+  public void testRenderedCache() {
+    ILayer layer = new Layer("cache", new Normal(), 1, 2);
+    ICanvas rendered = new PackedCanvas(1, 2, 0);
+    assertNull(layer.getRendered());
+
+    layer.setRendered(rendered);
+    assertSame(rendered, layer.getRendered());
+
+    long version = layer.getVersion();
+    layer.setFilter(new RedFilter());
+    assertNotEquals(version, layer.getVersion());
+    assertSame(rendered, layer.getRendered());
+    layer.setRendered(null);
+    assertNull(layer.getRendered());
+  }
+
+  @Test
+  public void testDirtyRegions() {
+    Pixel[][] pixels = new Pixel[2][3];
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 3; j++) {
+        pixels[i][j] = new Pixel(10, 20, 30, 255);
+      }
+    }
+    ILayer layer = new Layer("dirty", new Normal(), 10, 10);
+    assertEquals(new Rectangle(0, 0, 10, 10), layer.takeDirty());
+    assertTrue(layer.takeDirty().isEmpty());
+
+    layer.addImage(new PPMImage(pixels, 2, 3), 4, 1);
+    assertEquals(new Rectangle(4, 1, 3, 2), layer.takeDirty());
+
+    layer.addImage(new PPMImage(pixels, 2, 3), 8, 9);
+    layer.writeRow(0, 0, 1, new int[] {0}, 0);
+    assertEquals(new Rectangle(0, 0, 10, 10), layer.takeDirty());
+
+    layer.setFilter(new RedFilter());
+    assertEquals(new Rectangle(0, 0, 10, 10), layer.takeDirty());
+  }
+
+  @Test
+  public void testTiledLayerMatchesPacked() {
+    Pixel[][] pixels = new Pixel[3][200];
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 200; j++) {
+        pixels[i][j] = new Pixel(i, j, i + j, 255);
+      }
+    }
+    ILayer packed = new Layer("packed", new Normal(), 300, 300);
+    ILayer tiled = new Layer("tiled", new Normal(), 300, 300, TiledCanvas::new);
+    packed.addImage(new PPMImage(pixels, 3, 200), 60, 126);
+    tiled.addImage(new PPMImage(pixels, 3, 200), 60, 126);
+
+    int[] expected = new int[300];
+    int[] actual = new int[300];
+    for (int i = 0; i < 300; i++) {
+      packed.readRow(i, 0, 300, expected, 0);
+      tiled.readRow(i, 0, 300, actual, 0);
+      assertArrayEquals(expected, actual);
+    }
+    assertEquals(packed.getArgb(128, 259), tiled.getArgb(128, 259));
+  }
+
+  @Test
+  public void testContentBounds() {
+    Pixel[][] pixels = new Pixel[2][3];
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 3; j++) {
+        pixels[i][j] = new Pixel(10, 20, 30, 255);
+      }
+    }
+    ILayer layer = new Layer("bounds", new Normal(), 10, 10);
+    assertTrue(layer.getContentBounds().isEmpty());
+
+    layer.addImage(new PPMImage(pixels, 2, 3), 4, 1);
+    assertEquals(new Rectangle(4, 1, 3, 2), layer.getContentBounds());
+    layer.writeRow(7, 2, 1, new int[] {PackedPixel.pack(0, 0, 0, 255)}, 0);
+    assertEquals(new Rectangle(2, 1, 5, 7), layer.getContentBounds());
+    //blank pixels do not grow the bounds
+    layer.writeRow(9, 0, 1, new int[] {PackedPixel.pack(255, 255, 255, 0)}, 0);
+    assertEquals(new Rectangle(2, 1, 5, 7), layer.getContentBounds());
+
+    IPixel[][] canvas = new Layer("blank", new Normal(), 10, 10).getCanvas();
+    canvas[5][6] = new Pixel(1, 1, 1, 0);
+    layer.setCanvas(canvas);
+    assertEquals(new Rectangle(6, 5, 1, 1), layer.getContentBounds());
+
+    layer.firstLayer();
+    assertEquals(new Rectangle(0, 0, 10, 10), layer.getContentBounds());
+  }
+
+  @Test
+  public void testConstantLayer() {
+    ILayer layer = new Layer("constant", new Normal(), 300, 300, TiledCanvas::new);
+    assertTrue(layer.isConstant());
+    layer.firstLayer();
+    assertTrue(layer.isConstant());
+    assertEquals(PackedPixel.pack(255, 255, 255, 255), layer.getArgb(299, 299));
+
+    layer.writeRow(5, 5, 1, new int[] {PackedPixel.pack(1, 2, 3, 255)}, 0);
+    assertFalse(layer.isConstant());
+    assertEquals(PackedPixel.pack(255, 255, 255, 255), layer.getArgb(5, 4));
+    assertEquals(PackedPixel.pack(1, 2, 3, 255), layer.getArgb(5, 5));
+
+    layer.firstLayer();
+    assertTrue(layer.isConstant());
+    assertEquals(255, layer.getCanvas()[5][5].getRed());
+  }
+
+  @Test
+  public void testReadRuns() {
+    Layer layer = new Layer("runs", new Normal(), 2, 6, RunCanvas::new);
+    layer.writeRow(1, 1, 4, new int[] {3, 3, 5, 5}, 0);
+    int[] lengths = new int[6];
+    int[] values = new int[6];
+    assertEquals(4, layer.readRuns(1, 0, 6, lengths, values, 0));
+    assertArrayEquals(new int[] {1, 2, 2, 1}, Arrays.copyOf(lengths, 4));
+    int blank = PackedPixel.pack(255, 255, 255, 0);
+    assertArrayEquals(new int[] {blank, 3, 5, blank}, Arrays.copyOf(values, 4));
+
+    //other storage is encoded as it is read, and a region reads the runs of its part
+    Layer packed = new Layer("packed", new Normal(), 2, 6);
+    packed.writeRow(1, 1, 4, new int[] {3, 3, 5, 5}, 0);
+    ILayer region = new LayerRegion(packed, new Rectangle(2, 1, 3, 1));
+    assertEquals(2, region.readRuns(0, 0, 3, lengths, values, 0));
+    assertArrayEquals(new int[] {1, 2}, Arrays.copyOf(lengths, 2));
+    assertArrayEquals(new int[] {3, 5}, Arrays.copyOf(values, 2));
+  }
+
+  @Test
+  public void testPlacedImagesAreShared() {
+    Pixel[][] pixels = new Pixel[2][2];
+    pixels[0][0] = new Pixel(10, 0, 0, 255);
+    pixels[0][1] = new Pixel(20, 0, 0, 255);
+    pixels[1][0] = new Pixel(30, 0, 0, 255);
+    pixels[1][1] = new Pixel(40, 0, 0, 255);
+    PPMImage image = new PPMImage(pixels, 2, 2);
+    Layer first = new Layer("first", new Normal(), 3, 3);
+    Layer second = new Layer("second", new Normal(), 3, 3);
+    first.addImage(image, 1, 1);
+    second.addImage(image, 0, 0);
+    assertFalse(first.isConstant());
+    assertEquals(40, first.getPixel(2, 2).getRed());
+    assertEquals(40, second.getPixel(1, 1).getRed());
+
+    //writing to a layer leaves the image, and the other layers it is placed on, as they were
+    first.writeRow(2, 2, 1, new int[] {PackedPixel.pack(1, 2, 3, 255)}, 0);
+    assertEquals(1, first.getPixel(2, 2).getRed());
+    assertEquals(30, first.getPixel(2, 1).getRed());
+    assertEquals(40, second.getPixel(1, 1).getRed());
+    int[] row = new int[2];
+    image.readRow(1, 0, 2, row, 0);
+    assertArrayEquals(new int[] {PackedPixel.pack(30, 0, 0, 255), PackedPixel.pack(40, 0, 0, 255)},
+            row);
+
+    //a later image shows over an earlier one, clipped to the layer
+    Pixel[][] over = new Pixel[1][4];
+    for (int j = 0; j < 4; j++) {
+      over[0][j] = new Pixel(99, 0, 0, 255);
+    }
+    second.addImage(new PPMImage(over, 1, 4), 1, 1);
+    int[] read = new int[3];
+    second.readRow(1, 0, 3, read, 0);
+    assertArrayEquals(new int[] {PackedPixel.pack(30, 0, 0, 255), PackedPixel.pack(99, 0, 0, 255),
+        PackedPixel.pack(99, 0, 0, 255)}, read);
+  }
+
+  @Test
+  public void testSnapshotKeepsPixels() {
+    Layer layer = new Layer("edited", new Normal(), 2, 2, TiledCanvas::new);
+    int[] row = {PackedPixel.pack(1, 2, 3, 255), PackedPixel.pack(4, 5, 6, 255)};
+    layer.writeRow(0, 0, 2, row, 0);
+    ILayer snapshot = layer.snapshot();
+    assertEquals(layer.getVersion(), snapshot.getVersion());
+
+    layer.writeRow(0, 0, 1, new int[] {PackedPixel.pack(9, 9, 9, 255)}, 0);
+    Pixel[][] pixels = {{new Pixel(7, 7, 7, 255)}};
+    layer.addImage(new PPMImage(pixels, 1, 1), 1, 1);
+    assertEquals(PackedPixel.pack(9, 9, 9, 255), layer.getArgb(0, 0));
+    assertEquals(PackedPixel.pack(1, 2, 3, 255), snapshot.getArgb(0, 0));
+    assertEquals(PackedPixel.pack(255, 255, 255, 0), snapshot.getArgb(1, 1));
+    assertNotEquals(layer.getVersion(), snapshot.getVersion());
+
+    //releasing the layer leaves the pixels the snapshot shares alone
+    layer.release();
+    assertEquals(PackedPixel.pack(4, 5, 6, 255), snapshot.getArgb(0, 1));
+  }
+
+  @Test
+  public void testSnapshotSharesPackedStorage() {
+    Layer layer = new Layer("packed", new Normal(), 1, 3);
+    layer.writeRow(0, 1, 1, new int[] {PackedPixel.pack(1, 1, 1, 255)}, 0);
+    ILayer snapshot = layer.snapshot();
+    layer.writeRow(0, 1, 1, new int[] {PackedPixel.pack(2, 2, 2, 255)}, 0);
+    assertEquals(PackedPixel.pack(1, 1, 1, 255), snapshot.getArgb(0, 1));
+    assertEquals(PackedPixel.pack(2, 2, 2, 255), layer.getArgb(0, 1));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSnapshotIsReadOnly() {
+    new Layer("frozen", new Normal(), 1, 1).snapshot().writeRow(0, 0, 1, new int[1], 0);
+  }
+
+  @Test
+  public void testCollectedSnapshotStopsSharing() {
+    int[] created = new int[1];
+    Layer layer = new Layer("packed", new Normal(), 1, 3, (height, width, argb) -> {
+      created[0]++;
+      return new PackedCanvas(height, width, argb);
+    });
+    layer.writeRow(0, 1, 1, new int[] {PackedPixel.pack(1, 1, 1, 255)}, 0);
+    ILayer snapshot = layer.snapshot();
+    layer.writeRow(0, 1, 1, new int[] {PackedPixel.pack(2, 2, 2, 255)}, 0);
+    assertEquals(2, created[0]);
+
+    WeakReference<ILayer> collected = new WeakReference<ILayer>(layer.snapshot());
+    snapshot = null;
+    for (int i = 0; i < 100 && collected.get() != null; i++) {
+      System.gc();
+    }
+    assertNull(collected.get());
+    layer.writeRow(0, 1, 1, new int[] {PackedPixel.pack(3, 3, 3, 255)}, 0);
+    assertEquals(2, created[0]);
+    assertEquals(PackedPixel.pack(3, 3, 3, 255), layer.getArgb(0, 1));
+  }
+}
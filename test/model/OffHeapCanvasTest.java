@@ -0,0 +1,53 @@
+package model;
+
+import org.junit.Test;
+
+import model.filters.Normal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represents tests for the OffHeapCanvas class.
+ */
+public class OffHeapCanvasTest {
+
+  @Test
+  public void testReadAndWrite() {
+    OffHeapCanvas canvas = new OffHeapCanvas(3, 4, 7);
+    assertEquals(7, canvas.get(2, 3));
+
+    canvas.writeRow(1, 1, 2, new int[] {0, 1, 2}, 1);
+    int[] read = new int[4];
+    canvas.readRow(1, 0, 4, read, 0);
+    assertArrayEquals(new int[] {7, 1, 2, 7}, read);
+    assertEquals(2, canvas.get(1, 2));
+
+    canvas.fill(-1);
+    assertEquals(-1, canvas.get(1, 2));
+    canvas.release();
+  }
+
+  @Test
+  public void testReleasedLayerIsBlank() {
+    ILayer layer = new Layer("offHeap", new Normal(), 2, 2, OffHeapCanvas::new);
+    layer.writeRow(1, 1, 1, new int[] {PackedPixel.pack(1, 2, 3, 255)}, 0);
+    layer.setRendered(new OffHeapCanvas(2, 2, 0));
+    assertEquals(PackedPixel.pack(1, 2, 3, 255), layer.getArgb(1, 1));
+
+    layer.release();
+    assertEquals(PackedPixel.pack(255, 255, 255, 0), layer.getArgb(1, 1));
+    assertNull(layer.getRendered());
+  }
+
+  @Test
+  public void testRendersLikePacked() {
+    ImageProcessorModel model = RenderAssert.assertRendersLikePacked(OffHeapCanvas::new);
+    assertTrue(model.getLayer("photo").getRendered() instanceof OffHeapCanvas);
+
+    model.newProject(10, 10, 255);
+    assertEquals(1, model.getLayerCount());
+  }
+}
@@ -0,0 +1,59 @@
+package model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represents tests for the PlanarCanvas class.
+ */
+public class PlanarCanvasTest {
+
+  @Test
+  public void testPackAndUnpack() {
+    int[] packed = {PackedPixel.pack(1, 2, 3, 4), PackedPixel.pack(255, 128, 0, 255)};
+    byte[] red = new byte[3];
+    byte[] green = new byte[3];
+    byte[] blue = new byte[3];
+    byte[] alpha = new byte[3];
+    PlanarCanvas.unpack(packed, 0, red, green, blue, alpha, 1, 2);
+    assertEquals(255, red[2] & 0xff);
+    assertEquals(128, green[2] & 0xff);
+    assertEquals(4, alpha[1] & 0xff);
+
+    int[] round = new int[2];
+    PlanarCanvas.pack(red, green, blue, alpha, 1, round, 0, 2);
+    assertArrayEquals(packed, round);
+  }
+
+  @Test
+  public void testRowsAndPlanes() {
+    PlanarCanvas canvas = new PlanarCanvas(2, 3, PackedPixel.pack(255, 255, 255, 0));
+    int[] row = {PackedPixel.pack(10, 20, 30, 255), PackedPixel.pack(200, 100, 50, 128)};
+    canvas.writeRow(1, 1, 2, row, 0);
+    assertEquals(row[1], canvas.get(1, 2));
+
+    byte[] red = new byte[3];
+    byte[] green = new byte[3];
+    byte[] blue = new byte[3];
+    byte[] alpha = new byte[3];
+    canvas.readPlanes(1, 0, 3, red, green, blue, alpha, 0);
+    assertArrayEquals(new byte[] {(byte) 255, 10, (byte) 200}, red);
+    assertArrayEquals(new byte[] {0, (byte) 255, (byte) 128}, alpha);
+
+    red[0] = 7;
+    canvas.writePlanes(0, 0, 1, red, green, blue, alpha, 0);
+    int[] read = new int[3];
+    canvas.readRow(0, 0, 3, read, 0);
+    assertEquals(PackedPixel.pack(7, 255, 255, 0), read[0]);
+    assertEquals(PackedPixel.pack(255, 255, 255, 0), read[1]);
+  }
+
+  @Test
+  public void testRendersLikePacked() {
+    ImageProcessorModel model = RenderAssert.assertRendersLikePacked(PlanarCanvas::new);
+    assertTrue(model.getLayer("photo").getRendered() instanceof PlanarCanvas);
+  }
+}
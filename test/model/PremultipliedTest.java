@@ -0,0 +1,60 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represents tests for the Premultiplied class.
+ */
+public class PremultipliedTest {
+
+  @Test
+  public void testDiv255RoundsExactly() {
+    for (int value = 0; value <= 255 * 255; value++) {
+      assertEquals(Math.round(value / 255.0f), Premultiplied.div255(value));
+    }
+  }
+
+  @Test
+  public void testOverMatchesStraightAlpha() {
+    Random random = new Random(3);
+    for (int n = 0; n < 100000; n++) {
+      int src = random.nextInt();
+      int dst = random.nextInt() | 0xff000000;
+      int result = Premultiplied.unpremultiply(Premultiplied.over(src, dst));
+      double a = (src >>> 24) / 255.0;
+      assertEquals(255, result >>> 24);
+      for (int shift = 0; shift < 24; shift += 8) {
+        double expected = ((src >> shift) & 0xff) * a + ((dst >> shift) & 0xff) * (1 - a);
+        assertTrue(Math.abs(expected - ((result >> shift) & 0xff)) <= 1);
+      }
+    }
+  }
+
+  @Test
+  public void testOpaqueAndTransparentPassThrough() {
+    int opaque = PackedPixel.pack(12, 34, 56, 255);
+    int below = Premultiplied.premultiply(PackedPixel.pack(200, 100, 50, 128));
+    assertEquals(opaque, Premultiplied.over(opaque, below));
+    assertEquals(below, Premultiplied.over(PackedPixel.pack(9, 9, 9, 0), below));
+    assertEquals(opaque, Premultiplied.unpremultiply(Premultiplied.premultiply(opaque)));
+    assertEquals(PackedPixel.pack(255, 255, 255, 0), Premultiplied.unpremultiply(0));
+  }
+
+  @Test
+  public void testUnpremultiplyRoundTrips() {
+    for (int a = 1; a < 256; a++) {
+      for (int c = 0; c < 256; c++) {
+        int argb = PackedPixel.pack(c, c, c, a);
+        int back = Premultiplied.unpremultiply(Premultiplied.premultiply(argb));
+        assertEquals(a, back >>> 24);
+        //the color is only kept to the precision alpha leaves it
+        assertTrue(Math.abs((back & 0xff) - c) <= 128 / a + 1);
+      }
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package model;
+
+import model.filters.BrightenValue;
+import model.filters.DarkenLuma;
+import model.filters.Difference;
+import model.filters.RedFilter;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Represents the checks shared by the tests that render a project in more than one way.
+ */
+final class RenderAssert {
+
+  private RenderAssert() {
+  }
+
+  /**
+   * Checks that two saved canvases hold the same pixels.
+   *
+   * @param expected the canvas rendered the usual way
+   * @param actual   the canvas being checked
+   */
+  static void assertSameCanvas(IPixel[][] expected, IPixel[][] actual) {
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i].length, actual[i].length);
+      for (int j = 0; j < expected[i].length; j++) {
+        assertEquals("pixel " + i + "," + j, PackedPixel.pack(expected[i][j]),
+                PackedPixel.pack(actual[i][j]));
+      }
+    }
+  }
+
+  /**
+   * Renders the same project with packed layers and with the given storage, and checks that
+   * the two canvases match. The project has a filtered photo, a caption of long runs, a
+   * translucent blend layer and a constant background.
+   *
+   * @param storage the storage being checked
+   * @return the project stored with the given storage, for further checks
+   */
+  static ImageProcessorModel assertRendersLikePacked(ICanvasFactory storage) {
+    Pixel[][] photo = new Pixel[50][60];
+    for (int i = 0; i < 50; i++) {
+      for (int j = 0; j < 60; j++) {
+        photo[i][j] = new Pixel(i * 5, j * 4, 100, 255);
+      }
+    }
+    Pixel[][] caption = new Pixel[6][70];
+    for (int i = 0; i < 6; i++) {
+      for (int j = 0; j < 70; j++) {
+        caption[i][j] = new Pixel(j < 35 ? 200 : 40, 120, i * 30, 255);
+      }
+    }
+    Pixel[][] shade = new Pixel[30][30];
+    for (int i = 0; i < 30; i++) {
+      for (int j = 0; j < 30; j++) {
+        shade[i][j] = new Pixel(90, 60, 30, (i + j) % 2 == 0 ? 128 : 0);
+      }
+    }
+    ImageProcessorModel packed = new ImageProcessorModel(80, 90);
+    ImageProcessorModel stored = new ImageProcessorModel(80, 90);
+    packed.setStorage(PackedCanvas::new);
+    stored.setStorage(storage);
+    for (ImageProcessorModel model : new ImageProcessorModel[] {packed, stored}) {
+      model.newProject(80, 90, 255);
+      model.getLayer("background").firstLayer();
+      model.setFilter("background", new RedFilter());
+      model.addLayer("photo", new BrightenValue());
+      model.addImage(20, 10, new PPMImage(photo, 50, 60), model.getLayer("photo"));
+      model.addLayer("caption", new DarkenLuma());
+      model.addImage(10, 60, new PPMImage(caption, 6, 70), model.getLayer("caption"));
+      model.addLayer("shade", new Difference());
+      model.addImage(40, 30, new PPMImage(shade, 30, 30), model.getLayer("shade"));
+    }
+    assertSameCanvas(packed.saveCanvas(), stored.saveCanvas());
+    return stored;
+  }
+}
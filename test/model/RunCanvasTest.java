@@ -0,0 +1,99 @@
+package model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represents tests for the RunCanvas class.
+ */
+public class RunCanvasTest {
+
+  @Test
+  public void testBlankRowsAreOneRun() {
+    RunCanvas canvas = new RunCanvas(100000, 100000, 7);
+    assertEquals(7, canvas.get(99999, 99999));
+    assertEquals(1, canvas.runs(5));
+  }
+
+  @Test
+  public void testWriteSplicesRuns() {
+    RunCanvas canvas = new RunCanvas(2, 10, 0);
+    canvas.writeRow(0, 3, 4, new int[] {5, 5, 6, 6}, 0);
+    assertEquals(4, canvas.runs(0));
+    assertEquals(1, canvas.runs(1));
+
+    int[] read = new int[10];
+    canvas.readRow(0, 0, 10, read, 0);
+    assertArrayEquals(new int[] {0, 0, 0, 5, 5, 6, 6, 0, 0, 0}, read);
+
+    //a write starting where a run starts, and ending inside another, keeps the rest of both
+    canvas.writeRow(0, 5, 3, new int[] {5, 5, 9}, 0);
+    canvas.readRow(0, 0, 10, read, 0);
+    assertArrayEquals(new int[] {0, 0, 0, 5, 5, 5, 5, 9, 0, 0}, read);
+    assertEquals(4, canvas.runs(0));
+
+    //writing the blank value back over the runs merges the row into one run again
+    canvas.writeRow(0, 2, 8, new int[8], 0);
+    assertEquals(1, canvas.runs(0));
+    assertEquals(0, canvas.get(0, 4));
+  }
+
+  @Test
+  public void testReadRunsCutsRunsToSpan() {
+    RunCanvas canvas = new RunCanvas(1, 10, 0);
+    canvas.writeRow(0, 0, 10, new int[] {1, 1, 1, 2, 2, 2, 2, 3, 3, 3}, 0);
+    int[] lengths = new int[6];
+    int[] values = new int[6];
+    assertEquals(3, canvas.readRuns(0, 2, 6, lengths, values, 1));
+    assertArrayEquals(new int[] {0, 1, 4, 1, 0, 0}, lengths);
+    assertArrayEquals(new int[] {0, 1, 2, 3, 0, 0}, values);
+    assertEquals(0, canvas.readRuns(0, 10, 0, lengths, values, 0));
+  }
+
+  @Test
+  public void testWriteRunsMatchesWriteRow() {
+    RunCanvas runs = new RunCanvas(1, 8, 4);
+    RunCanvas row = new RunCanvas(1, 8, 4);
+    runs.writeRuns(0, 1, 3, new int[] {2, 0, 3}, new int[] {1, 8, 2}, 0);
+    row.writeRow(0, 1, 5, new int[] {1, 1, 2, 2, 2}, 0);
+    int[] expected = new int[8];
+    int[] actual = new int[8];
+    row.readRow(0, 0, 8, expected, 0);
+    runs.readRow(0, 0, 8, actual, 0);
+    assertArrayEquals(expected, actual);
+    assertEquals(4, runs.runs(0));
+  }
+
+  @Test
+  public void testEncodeInPlace() {
+    int[] span = {9, 3, 3, 3, 4, 9};
+    int[] lengths = new int[6];
+    assertEquals(2, RunCanvas.encode(span, 1, 4, lengths, span, 1));
+    assertArrayEquals(new int[] {0, 3, 1, 0, 0, 0}, lengths);
+    assertEquals(3, span[1]);
+    assertEquals(4, span[2]);
+  }
+
+  @Test
+  public void testFillDropsRuns() {
+    RunCanvas canvas = new RunCanvas(3, 3, 0);
+    canvas.writeRow(1, 0, 3, new int[] {1, 2, 3}, 0);
+    canvas.fill(8);
+    assertEquals(1, canvas.runs(1));
+    assertEquals(8, canvas.get(1, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeDimensions() {
+    new RunCanvas(-1, 4, 0);
+  }
+
+  @Test
+  public void testRendersLikePacked() {
+    ImageProcessorModel model = RenderAssert.assertRendersLikePacked(RunCanvas::new);
+    assertTrue(model.getLayer("caption").getRendered() instanceof RunCanvas);
+  }
+}
@@ -0,0 +1,148 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import model.filters.BrightenValue;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represents tests for the TiledCanvas class.
+ */
+public class TiledCanvasTest {
+
+  @Test
+  public void testBlankCanvasSharesTiles() {
+    TiledCanvas canvas = new TiledCanvas(20000, 20000, 7);
+    assertEquals(7, canvas.get(19999, 19999));
+    assertEquals(0, canvas.ownedTiles());
+  }
+
+  @Test
+  public void testWriteCopiesOnlyTouchedTiles() {
+    TiledCanvas canvas = new TiledCanvas(40, 40, 0, 16);
+    int[] row = new int[10];
+    for (int i = 0; i < row.length; i++) {
+      row[i] = i + 1;
+    }
+    //columns 10 to 19 straddle the first two tiles of the first row of tiles
+    canvas.writeRow(3, 10, 10, row, 0);
+    assertEquals(2, canvas.ownedTiles());
+
+    int[] read = new int[12];
+    canvas.readRow(3, 9, 12, read, 0);
+    assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 0}, read);
+    assertEquals(0, canvas.get(4, 10));
+    assertEquals(0, new TiledCanvas(40, 40, 0, 16).get(3, 10));
+  }
+
+  @Test
+  public void testFillReleasesTiles() {
+    TiledCanvas canvas = new TiledCanvas(5, 300, 0);
+    canvas.writeRow(4, 0, 1, new int[] {9}, 0);
+    assertEquals(1, canvas.ownedTiles());
+
+    canvas.fill(3);
+    assertEquals(0, canvas.ownedTiles());
+    assertEquals(3, canvas.get(4, 0));
+    assertEquals(3, canvas.get(4, 299));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTileSizeMustBePowerOfTwo() {
+    new TiledCanvas(10, 10, 0, 100);
+  }
+
+  @Test
+  public void testShareCopiesTilesOnWrite() {
+    TiledCanvas canvas = new TiledCanvas(40, 40, 0, 16);
+    int[] row = {5, 6};
+    canvas.writeRow(3, 10, 2, row, 0);
+    TiledCanvas copy = canvas.share();
+    assertEquals(0, copy.ownedTiles());
+    assertEquals(5, copy.get(3, 10));
+
+    copy.writeRow(3, 10, 2, new int[] {8, 9}, 0);
+    assertEquals(1, copy.ownedTiles());
+    assertEquals(8, copy.get(3, 10));
+    assertEquals(5, canvas.get(3, 10));
+  }
+
+  @Test
+  public void testWritingHeldValuesKeepsTilesShared() {
+    TiledCanvas canvas = new TiledCanvas(40, 40, 7, 16);
+    int[] row = new int[40];
+    Arrays.fill(row, 7);
+    canvas.writeRow(3, 0, 40, row, 0);
+    assertEquals(0, canvas.ownedTiles());
+
+    row[20] = 8;
+    canvas.writeRow(3, 0, 40, row, 0);
+    assertEquals(1, canvas.ownedTiles());
+    assertEquals(8, canvas.get(3, 20));
+    assertEquals(7, canvas.get(3, 19));
+    assertEquals(7, new TiledCanvas(40, 40, 7, 16).get(3, 20));
+  }
+
+  @Test
+  public void testRendersLikePacked() {
+    ImageProcessorModel model = RenderAssert.assertRendersLikePacked(TiledCanvas::new);
+    assertTrue(model.getLayer("photo").getRendered() instanceof TiledCanvas);
+  }
+
+  @Test
+  public void testPooledRenderOfCachesMatchesSequential() {
+    int[] row = new int[2048];
+    ForkJoinPool pool = new ForkJoinPool(4);
+    //bands of 64 rows share the 128-row tiles of the cached results, so renders race to copy them
+    for (int attempt = 0; attempt < 20; attempt++) {
+      ImageProcessorModel sequential = new ImageProcessorModel(512, 2048);
+      ImageProcessorModel parallel = new ImageProcessorModel(512, 2048);
+      parallel.setRenderPool(pool);
+      for (ImageProcessorModel model : List.of(sequential, parallel)) {
+        model.setStorage(TiledCanvas::new);
+        model.addLayer("bright", new BrightenValue());
+        for (int i = 0; i < 512; i++) {
+          for (int j = 0; j < row.length; j++) {
+            row[j] = PackedPixel.pack(i % 256, j % 256, (i + j) % 256, 255);
+          }
+          model.getLayer("bright").writeRow(i, 0, row.length, row, 0);
+        }
+        model.compressImage();
+      }
+      ICanvas expected = sequential.getLayer("bright").getRendered();
+      ICanvas actual = parallel.getLayer("bright").getRendered();
+      int[] actualRow = new int[2048];
+      for (int i = 0; i < 512; i++) {
+        expected.readRow(i, 0, row.length, row, 0);
+        actual.readRow(i, 0, actualRow.length, actualRow, 0);
+        assertArrayEquals("row " + i, row, actualRow);
+      }
+    }
+    pool.shutdown();
+  }
+
+  @Test
+  public void testBlankPartsOfCachesStayShared() {
+    Pixel[][] pixels = new Pixel[20][20];
+    for (int i = 0; i < 20; i++) {
+      for (int j = 0; j < 20; j++) {
+        pixels[i][j] = new Pixel(100, 150, 200, 255);
+      }
+    }
+    ImageProcessorModel model = new ImageProcessorModel(2000, 2000);
+    model.addLayer("stickers", new BrightenValue());
+    model.addImage(0, 0, new PPMImage(pixels, 20, 20), model.getLayer("stickers"));
+    model.addImage(1980, 1980, new PPMImage(pixels, 20, 20), model.getLayer("stickers"));
+    model.compressImage();
+    TiledCanvas rendered = (TiledCanvas) model.getLayer("stickers").getRendered();
+    assertEquals(2000, rendered.getHeight());
+    assertEquals(2, rendered.ownedTiles());
+  }
+}
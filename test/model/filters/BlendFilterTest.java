@@ -0,0 +1,119 @@
+package model.filters;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import model.IHSL;
+import model.IPixel;
+import model.PackedPixel;
+import swingdemo.RepresentationConverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represents tests for blending layers with the composite beneath them.
+ */
+public class BlendFilterTest {
+
+  @Test
+  public void testDifferenceKeepsTopAlpha() {
+    int[] top = {PackedPixel.pack(50, 50, 0, 128), PackedPixel.pack(0, 0, 0, 255)};
+    int[] below = {PackedPixel.pack(25, 75, 10, 255), PackedPixel.pack(9, 8, 7, 0)};
+    new Difference().blend(top, below, 2);
+    assertEquals(PackedPixel.pack(25, 25, 10, 128), top[0]);
+    assertEquals(PackedPixel.pack(9, 8, 7, 255), top[1]);
+  }
+
+  @Test
+  public void testMultiplyDarkens() {
+    int color = PackedPixel.pack(200, 120, 40, 100);
+    int[] top = {color, color};
+    int[] below = {PackedPixel.pack(255, 255, 255, 255), PackedPixel.pack(0, 0, 0, 255)};
+    new Multiply().blend(top, below, 2);
+    assertClose(color, top[0]);
+    assertEquals(PackedPixel.pack(0, 0, 0, 100), top[1]);
+  }
+
+  @Test
+  public void testScreenLightens() {
+    int color = PackedPixel.pack(200, 120, 40, 100);
+    int[] top = {color, color};
+    int[] below = {PackedPixel.pack(0, 0, 0, 255), PackedPixel.pack(255, 255, 255, 255)};
+    new Screen().blend(top, below, 2);
+    assertClose(color, top[0]);
+    assertEquals(PackedPixel.pack(255, 255, 255, 100), top[1]);
+  }
+
+  @Test
+  public void testBlendOnlyTouchesLength() {
+    int[] top = {PackedPixel.pack(50, 50, 50, 255), PackedPixel.pack(50, 50, 50, 255)};
+    int[] below = {PackedPixel.pack(0, 0, 0, 255), PackedPixel.pack(0, 0, 0, 255)};
+    new Difference().blend(top, below, 1);
+    assertEquals(PackedPixel.pack(50, 50, 50, 255), top[1]);
+  }
+
+  /**
+   * Asserts that two packed ARGB values share their alpha and are within one of each other in
+   * every color channel, as converting to HSL and back truncates.
+   */
+  private static void assertClose(int expected, int actual) {
+    assertEquals(expected >>> 24, actual >>> 24);
+    for (int shift = 0; shift <= 16; shift += 8) {
+      assertTrue(Math.abs((expected >> shift & 0xff) - (actual >> shift & 0xff)) <= 1);
+    }
+  }
+
+  @Test
+  public void testMultiplyAndScreenMatchConverter() {
+    Random random = new Random(5);
+    for (int n = 0; n < 20000; n++) {
+      int color = random.nextInt();
+      int beneath = random.nextInt() | 0xff000000;
+      int[] multiplied = {color};
+      int[] screened = {color};
+      new Multiply().blend(multiplied, new int[] {beneath}, 1);
+      new Screen().blend(screened, new int[] {beneath}, 1);
+      //converting to HSL and back with doubles only works where the hue comes out positive
+      IHSL hsl = hsl(color);
+      IHSL below = hsl(beneath);
+      if (hsl == null || below == null) {
+        continue;
+      }
+      double screen = 1 - (1 - hsl.getLightness()) * (1 - below.getLightness());
+      assertClose(converted(color, hsl.getLightness() * below.getLightness()), multiplied[0]);
+      assertClose(converted(color, screen), screened[0]);
+    }
+  }
+
+  @Test
+  public void testMultiplyKeepsHueWhereConverterFailed() {
+    //red is the largest channel and green below blue, which gives the converter a negative hue
+    int[] top = {PackedPixel.pack(200, 40, 120, 255)};
+    new Multiply().blend(top, new int[] {PackedPixel.pack(255, 255, 255, 255)}, 1);
+    assertClose(PackedPixel.pack(200, 40, 120, 255), top[0]);
+  }
+
+  /**
+   * Returns the HSL of a packed ARGB value as the converter gives it, or null if it fails.
+   */
+  private static IHSL hsl(int argb) {
+    try {
+      return RepresentationConverter.convertRGBtoHSL(argb >> 16 & 0xff, argb >> 8 & 0xff,
+              argb & 0xff);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a packed ARGB value given a new lightness by converting it to HSL and back.
+   */
+  private static int converted(int argb, double lightness) {
+    IHSL hsl = hsl(argb);
+    IPixel pixel = RepresentationConverter.convertHSLtoRGB(hsl.getHue(), hsl.getSaturation(),
+            lightness);
+    return (argb & 0xff000000) | pixel.getRed() << 16 | pixel.getGreen() << 8 | pixel.getBlue();
+  }
+}
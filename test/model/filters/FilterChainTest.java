@@ -0,0 +1,83 @@
+package model.filters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import model.ILayer;
+import model.IPixel;
+import model.Layer;
+import model.PackedPixel;
+import model.PlanarCanvas;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Represents tests that a chain of filters matches applying its filters one after another.
+ */
+public class FilterChainTest {
+
+  private static final IPlanarFilter[] STAGES = {new BrightenIntensity(), new RedFilter(),
+      new DarkenValue(), new Normal(), new BrightenValue()};
+
+  @Test
+  public void testChainMatchesFiltersInTurn() {
+    Random random = new Random(5);
+    int[] packed = new int[32 * 32];
+    for (int i = 0; i < packed.length; i++) {
+      packed[i] = PackedPixel.pack(random.nextInt(256), random.nextInt(256),
+              random.nextInt(256), random.nextInt(256));
+    }
+    ILayer layer = new Layer("layer", new Normal(), 32, 32);
+    for (int i = 0; i < 32; i++) {
+      layer.writeRow(i, 0, 32, packed, i * 32);
+    }
+    //apply the filters one after another, each to the result of the one before
+    int[] expected = packed.clone();
+    for (IPlanarFilter stage : STAGES) {
+      IPixel[][] pixels = stage.apply(null, layer);
+      for (int i = 0; i < expected.length; i++) {
+        expected[i] = PackedPixel.pack(pixels[i / 32][i % 32]);
+      }
+      for (int i = 0; i < 32; i++) {
+        layer.writeRow(i, 0, 32, expected, i * 32);
+      }
+    }
+
+    FilterChain chain = new FilterChain(STAGES);
+    int[] row = packed.clone();
+    chain.applyRow(row, 0, row.length);
+    assertArrayEquals(expected, row);
+
+    byte[] red = new byte[packed.length];
+    byte[] green = new byte[packed.length];
+    byte[] blue = new byte[packed.length];
+    byte[] alpha = new byte[packed.length];
+    PlanarCanvas.unpack(packed, 0, red, green, blue, alpha, 0, packed.length);
+    chain.applyPlanes(red, green, blue, alpha, packed.length);
+    int[] planes = new int[packed.length];
+    PlanarCanvas.pack(red, green, blue, alpha, 0, planes, 0, packed.length);
+    assertArrayEquals(expected, planes);
+
+    for (int i = 0; i < packed.length; i++) {
+      assertEquals(expected[i], chain.applyArgb(packed[i]));
+    }
+  }
+
+  @Test
+  public void testChainsAreFlattened() {
+    FilterChain inner = new FilterChain(new RedFilter(), new Normal());
+    FilterChain chain = new FilterChain(new BrightenLuma(), inner);
+    assertEquals(2, chain.getFilters().size());
+    assertEquals("brightenLuma+redFilter", chain.getName());
+    assertEquals("normal", new FilterChain(new Normal()).getName());
+    assertEquals(Arrays.asList(inner.getFilters().get(0)), inner.getFilters());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyChain() {
+    new FilterChain();
+  }
+}
@@ -0,0 +1,108 @@
+package model.filters;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import model.PackedPixel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Represents tests that filters compiled into lookup tables give the results of the filters.
+ */
+public class LookupFilterTest {
+
+  private static final IPlanarFilter[] FILTERS = {new BrightenIntensity(), new BrightenLuma(),
+      new BrightenValue(), new DarkenIntensity(), new DarkenLuma(), new DarkenValue()};
+
+  @Test
+  public void testExactTableMatchesFilter() {
+    IPlanarFilter chain = new FilterChain(new DarkenLuma(), new BrightenValue());
+    IPlanarFilter compiled = LookupFilter.compile(chain, true);
+    assertEquals(chain.getName(), compiled.getName());
+    Random random = new Random(3);
+    int[] packed = new int[4096];
+    for (int i = 0; i < packed.length; i++) {
+      packed[i] = PackedPixel.pack(random.nextInt(256), random.nextInt(256),
+              1 + random.nextInt(255), random.nextInt(256));
+    }
+    int[] row = packed.clone();
+    compiled.applyRow(row, 0, row.length);
+    for (int i = 0; i < packed.length; i++) {
+      assertEquals("at " + i, chain.applyArgb(packed[i]), row[i]);
+      assertEquals("at " + i, row[i], compiled.applyArgb(packed[i]));
+    }
+  }
+
+  @Test
+  public void testCompiledFilterFailsWhereFilterFails() {
+    IPlanarFilter compiled = LookupFilter.compile(new DarkenLuma(), true);
+    assertEquals(new DarkenLuma().applyArgb(0x80102030), compiled.applyArgb(0x80102030));
+    try {
+      //the luma filters divide by the sum of the channels
+      compiled.applyArgb(0xff000000);
+      fail("black should not be filtered");
+    } catch (ArithmeticException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void testGridMatchesFilterAtNodes() {
+    int[] levels = {0, 8, 64, 128, 200, 248, 255};
+    for (IPlanarFilter filter : FILTERS) {
+      IPlanarFilter compiled = LookupFilter.compile(filter, false);
+      for (int r : levels) {
+        for (int g : levels) {
+          for (int b : levels) {
+            if (r + g + b == 0) {
+              continue;
+            }
+            int argb = PackedPixel.pack(r, g, b, 100);
+            assertEquals(filter.getName(), filter.applyArgb(argb), compiled.applyArgb(argb));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPlanesKeepAlpha() {
+    IPlanarFilter compiled = LookupFilter.compile(new BrightenIntensity(), false);
+    byte[] red = {8, 16};
+    byte[] green = {32, 40};
+    byte[] blue = {48, 56};
+    byte[] alpha = {0, (byte) 200};
+    compiled.applyPlanes(red, green, blue, alpha, 2);
+    assertEquals(0, alpha[0]);
+    assertEquals((byte) 200, alpha[1]);
+    assertEquals(37, red[0]);
+  }
+
+  @Test
+  public void testCheapFiltersAreNotCompiled() {
+    IPlanarFilter red = new RedFilter();
+    IPlanarFilter normal = new Normal();
+    assertSame(red, LookupFilter.compile(red, true));
+    assertSame(normal, LookupFilter.compile(normal, false));
+    IPlanarFilter compiled = LookupFilter.compile(new DarkenValue(), false);
+    assertSame(compiled, LookupFilter.compile(compiled, true));
+  }
+
+  @Test
+  public void testTablesKeepRecentlyUsedFilters() {
+    LookupTables tables = new LookupTables(false);
+    IPlanarFilter compiled = tables.compile(new DarkenValue());
+    assertSame(compiled, tables.compile(new DarkenValue()));
+    assertNotSame(compiled, tables.compile(new DarkenIntensity()));
+    for (IPlanarFilter filter : FILTERS) {
+      tables.compile(filter);
+    }
+    //only the few filters used last are kept
+    assertNotSame(compiled, tables.compile(new DarkenValue()));
+  }
+}
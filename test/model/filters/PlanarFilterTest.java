@@ -0,0 +1,101 @@
+package model.filters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import model.ILayer;
+import model.IPixel;
+import model.Layer;
+import model.PackedPixel;
+import model.PlanarCanvas;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Represents tests that applying the planar filters to planes matches applying them to layers.
+ */
+public class PlanarFilterTest {
+
+  private static final IPlanarFilter[] FILTERS = {new Normal(), new RedFilter(),
+      new GreenFilter(), new BlueFilter(), new BrightenIntensity(), new BrightenLuma(),
+      new BrightenValue(), new DarkenIntensity(), new DarkenLuma(), new DarkenValue()};
+
+  @Test
+  public void testPlanesMatchApply() {
+    Random random = new Random(7);
+    int[] packed = new int[64 * 64];
+    for (int i = 0; i < packed.length; i++) {
+      //the luma filters divide by the sum of the channels, so leave out black
+      packed[i] = PackedPixel.pack(random.nextInt(256), random.nextInt(256),
+              1 + random.nextInt(255), random.nextInt(256));
+    }
+    //include ties between the channels, which the value filters break in a set order
+    packed[0] = PackedPixel.pack(100, 100, 50, 255);
+    packed[1] = PackedPixel.pack(0, 0, 9, 255);
+    packed[2] = PackedPixel.pack(200, 200, 200, 0);
+
+    for (IPlanarFilter filter : FILTERS) {
+      ILayer layer = new Layer("layer", filter, 64, 64);
+      for (int i = 0; i < 64; i++) {
+        layer.writeRow(i, 0, 64, packed, i * 64);
+      }
+      IPixel[][] expected = filter.apply(null, layer);
+
+      byte[] red = new byte[packed.length];
+      byte[] green = new byte[packed.length];
+      byte[] blue = new byte[packed.length];
+      byte[] alpha = new byte[packed.length];
+      PlanarCanvas.unpack(packed, 0, red, green, blue, alpha, 0, packed.length);
+      filter.applyPlanes(red, green, blue, alpha, packed.length);
+      int[] actual = new int[packed.length];
+      PlanarCanvas.pack(red, green, blue, alpha, 0, actual, 0, packed.length);
+
+      for (int i = 0; i < packed.length; i++) {
+        assertEquals(filter.getName() + " at " + i,
+                PackedPixel.pack(expected[i / 64][i % 64]), actual[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testPlanesKeepAlpha() {
+    byte[] alpha = new byte[256];
+    for (int i = 0; i < alpha.length; i++) {
+      alpha[i] = (byte) i;
+    }
+    for (IPlanarFilter filter : FILTERS) {
+      byte[] red = new byte[256];
+      byte[] green = new byte[256];
+      byte[] blue = new byte[256];
+      byte[] planes = alpha.clone();
+      Arrays.fill(red, (byte) 40);
+      Arrays.fill(green, (byte) 80);
+      Arrays.fill(blue, (byte) 120);
+      filter.applyPlanes(red, green, blue, planes, planes.length);
+      assertArrayEquals(filter.getName(), alpha, planes);
+    }
+  }
+
+  @Test
+  public void testRowsMatchPixels() {
+    Random random = new Random(11);
+    int[] packed = new int[100];
+    for (int i = 0; i < packed.length; i++) {
+      packed[i] = PackedPixel.pack(random.nextInt(256), random.nextInt(256),
+              1 + random.nextInt(255), random.nextInt(256));
+    }
+    for (IPlanarFilter filter : FILTERS) {
+      int[] row = packed.clone();
+      filter.applyRow(row, 10, 80);
+      for (int i = 0; i < packed.length; i++) {
+        //only the span is filtered, and every value of it as if filtered on its own
+        int expected = i < 10 || i >= 90 ? packed[i] : filter.applyArgb(packed[i]);
+        assertEquals(filter.getName() + " at " + i, expected, row[i]);
+        assertEquals(filter.getName(), packed[i] >>> 24, filter.applyArgb(packed[i]) >>> 24);
+      }
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package model.filters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Represents tests that the vector kernels of the brighten and darken filters give exactly the
+ * results of their scalar kernels, and that the kernels used without the vector API leave every
+ * span to the scalar kernels.
+ */
+public class VectorKernelsTest {
+
+  private static final APixelFilter[] FILTERS = {new BrightenIntensity(), new BrightenLuma(),
+      new BrightenValue(), new DarkenIntensity(), new DarkenLuma(), new DarkenValue()};
+
+  /**
+   * Filters the start of a span with the row kernel of a filter and the rest of it with the
+   * scalar kernel.
+   *
+   * @param kernels the row kernels.
+   * @param filter  the filter.
+   * @param argb    the packed ARGB values.
+   * @param offset  the position of the first value to filter.
+   * @param length  the number of values to filter.
+   */
+  private static void kernelRow(IRowKernels kernels, APixelFilter filter, int[] argb, int offset,
+                                int length) {
+    int start;
+    if (filter instanceof BrightenIntensity) {
+      start = kernels.brightenIntensity(argb, offset, length);
+    } else if (filter instanceof DarkenIntensity) {
+      start = kernels.darkenIntensity(argb, offset, length);
+    } else if (filter instanceof BrightenValue) {
+      start = kernels.brightenValue(argb, offset, length);
+    } else if (filter instanceof DarkenValue) {
+      start = kernels.darkenValue(argb, offset, length);
+    } else if (filter instanceof BrightenLuma) {
+      start = kernels.brightenLuma(argb, offset, length);
+    } else {
+      start = kernels.darkenLuma(argb, offset, length);
+    }
+    for (int i = start; i < offset + length; i++) {
+      argb[i] = filter.applyArgb(argb[i]);
+    }
+  }
+
+  @Test
+  public void testEveryColorMatchesScalar() {
+    //the vector kernels can only be run with the vector API
+    assumeTrue(APixelFilter.VECTORS != null);
+    int[] row = new int[1 << 12];
+    for (APixelFilter filter : FILTERS) {
+      //every color but black, which the luma kernels fail on, with varying alpha
+      for (int first = 1; first < 1 << 24; first += row.length) {
+        int length = Math.min(row.length, (1 << 24) - first);
+        for (int i = 0; i < length; i++) {
+          row[i] = ((first + i) * 31 & 0xff) << 24 | (first + i);
+        }
+        kernelRow(APixelFilter.VECTORS, filter, row, 0, length);
+        for (int i = 0; i < length; i++) {
+          int argb = ((first + i) * 31 & 0xff) << 24 | (first + i);
+          if (row[i] != filter.applyArgb(argb)) {
+            assertEquals(filter.getName() + " of " + Integer.toHexString(argb),
+                    filter.applyArgb(argb), row[i]);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSpanWithinRowMatchesScalar() {
+    //the vector kernels can only be run with the vector API
+    assumeTrue(APixelFilter.VECTORS != null);
+    assertSpanMatchesScalar(APixelFilter.VECTORS);
+  }
+
+  @Test
+  public void testScalarKernelsLeaveSpansToFilters() {
+    IRowKernels kernels = new ScalarKernels();
+    assertSpanMatchesScalar(kernels);
+    int[] row = new int[16];
+    assertEquals(5, kernels.brightenIntensity(row, 5, 11));
+    assertEquals(5, kernels.darkenIntensity(row, 5, 11));
+    assertEquals(5, kernels.brightenValue(row, 5, 11));
+    assertEquals(5, kernels.darkenValue(row, 5, 11));
+    assertEquals(5, kernels.brightenLuma(row, 5, 11));
+    assertEquals(5, kernels.darkenLuma(row, 5, 11));
+    assertArrayEquals(new int[16], row);
+  }
+
+  /**
+   * Checks that filtering a span within a row through the given row kernels changes exactly the
+   * values of the span, to what the scalar kernel gives.
+   *
+   * @param kernels the row kernels.
+   */
+  private static void assertSpanMatchesScalar(IRowKernels kernels) {
+    int[] packed = new int[103];
+    for (int i = 0; i < packed.length; i++) {
+      packed[i] = i * 0x9e3779b1 | 0x010101;
+    }
+    for (APixelFilter filter : FILTERS) {
+      int[] row = packed.clone();
+      kernelRow(kernels, filter, row, 3, 97);
+      for (int i = 0; i < packed.length; i++) {
+        int expected = i < 3 || i >= 100 ? packed[i] : filter.applyArgb(packed[i]);
+        assertEquals(filter.getName() + " at " + i, expected, row[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testLumaLeavesBlackToScalar() {
+    //the vector kernels can only be run with the vector API
+    assumeTrue(APixelFilter.VECTORS != null);
+    int[] row = new int[256];
+    Arrays.fill(row, 0xff102030);
+    row[200] = 0xff000000;
+    for (APixelFilter filter : new APixelFilter[] {new BrightenLuma(), new DarkenLuma()}) {
+      IRowKernels kernels = APixelFilter.VECTORS;
+      int stop = filter instanceof BrightenLuma ? kernels.brightenLuma(row.clone(), 0, 256)
+              : kernels.darkenLuma(row.clone(), 0, 256);
+      assertTrue(stop <= 200);
+      try {
+        filter.applyRow(row.clone(), 0, row.length);
+        fail(filter.getName() + " should fail on black");
+      } catch (ArithmeticException e) {
+        //expected, as with the scalar kernel
+      }
+    }
+  }
+}
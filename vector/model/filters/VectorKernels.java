@@ -0,0 +1,248 @@
+package model.filters;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Represents the packed ARGB kernels of the brighten and darken filters written with the vector
+ * API, filtering as many values at once as the processor's vectors hold.
+ * Each kernel filters the span from its start for as long as whole vectors fit.
+ * The class lives outside of the main sources, as it needs the jdk.incubator.vector module to
+ * compile. The filters load it by name only when the module is present, and otherwise keep to
+ * their scalar kernels.
+ */
+final class VectorKernels implements IRowKernels {
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+  //dividing a sum of three channels by 3 is multiplying by 2^17 / 3, rounded up, and shifting
+  private static final int THIRD = 43691;
+
+  /**
+   * Represents a constructor for the vector kernels, called by name.
+   */
+  VectorKernels() {
+  }
+
+  /**
+   * Applies the brighten intensity filter, in place, to whole vectors of a span of values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  @Override
+  public int brightenIntensity(int[] argb, int offset, int length) {
+    int end = offset + SPECIES.loopBound(length);
+    for (int i = offset; i < end; i += SPECIES.length()) {
+      IntVector pixels = IntVector.fromArray(SPECIES, argb, i);
+      IntVector r = red(pixels);
+      IntVector g = green(pixels);
+      IntVector b = blue(pixels);
+      IntVector mean = mean(r, g, b);
+      pack(pixels, r.add(mean).min(255), g.add(mean).min(255), b.add(mean).min(255))
+              .intoArray(argb, i);
+    }
+    return end;
+  }
+
+  /**
+   * Applies the darken intensity filter, in place, to whole vectors of a span of values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  @Override
+  public int darkenIntensity(int[] argb, int offset, int length) {
+    int end = offset + SPECIES.loopBound(length);
+    for (int i = offset; i < end; i += SPECIES.length()) {
+      IntVector pixels = IntVector.fromArray(SPECIES, argb, i);
+      IntVector r = red(pixels);
+      IntVector g = green(pixels);
+      IntVector b = blue(pixels);
+      IntVector mean = mean(r, g, b);
+      pack(pixels, mean.sub(r).max(0), mean.sub(g).max(0), mean.sub(b).max(0))
+              .intoArray(argb, i);
+    }
+    return end;
+  }
+
+  /**
+   * Applies the brighten value filter, in place, to whole vectors of a span of values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  @Override
+  public int brightenValue(int[] argb, int offset, int length) {
+    int end = offset + SPECIES.loopBound(length);
+    for (int i = offset; i < end; i += SPECIES.length()) {
+      IntVector pixels = IntVector.fromArray(SPECIES, argb, i);
+      IntVector r = red(pixels);
+      IntVector g = green(pixels);
+      IntVector b = blue(pixels);
+      IntVector value = value(r, g, b);
+      pack(pixels, r.add(value).min(255), g.add(value).min(255), b.add(value).min(255))
+              .intoArray(argb, i);
+    }
+    return end;
+  }
+
+  /**
+   * Applies the darken value filter, in place, to whole vectors of a span of values.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  @Override
+  public int darkenValue(int[] argb, int offset, int length) {
+    int end = offset + SPECIES.loopBound(length);
+    for (int i = offset; i < end; i += SPECIES.length()) {
+      IntVector pixels = IntVector.fromArray(SPECIES, argb, i);
+      IntVector r = red(pixels);
+      IntVector g = green(pixels);
+      IntVector b = blue(pixels);
+      IntVector value = value(r, g, b);
+      pack(pixels, r.sub(value).max(0), g.sub(value).max(0), b.sub(value).max(0))
+              .intoArray(argb, i);
+    }
+    return end;
+  }
+
+  /**
+   * Applies the brighten luma filter, in place, to whole vectors of a span of values. The scalar
+   * kernel divides each channel by the sum of the channels, which is 1 for a channel holding the
+   * whole sum and 0 otherwise, so a channel is doubled only when the other two are 0. A vector
+   * with a black pixel in it is left to the scalar kernel, which fails on it.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  @Override
+  public int brightenLuma(int[] argb, int offset, int length) {
+    int end = offset + SPECIES.loopBound(length);
+    for (int i = offset; i < end; i += SPECIES.length()) {
+      IntVector pixels = IntVector.fromArray(SPECIES, argb, i);
+      IntVector r = red(pixels);
+      IntVector g = green(pixels);
+      IntVector b = blue(pixels);
+      IntVector sum = r.add(g).add(b);
+      if (sum.eq(0).anyTrue()) {
+        return i;
+      }
+      pack(pixels, r.add(r, r.eq(sum)).min(255), g.add(g, g.eq(sum)).min(255),
+              b.add(b, b.eq(sum)).min(255)).intoArray(argb, i);
+    }
+    return end;
+  }
+
+  /**
+   * Applies the darken luma filter, in place, to whole vectors of a span of values. A channel is
+   * cleared only when the other two are 0, and a vector with a black pixel in it is left to the
+   * scalar kernel, which fails on it.
+   *
+   * @param argb   the packed ARGB values.
+   * @param offset the position of the first value to filter.
+   * @param length the number of values in the span.
+   * @return int the position of the first value left to filter.
+   */
+  @Override
+  public int darkenLuma(int[] argb, int offset, int length) {
+    int end = offset + SPECIES.loopBound(length);
+    for (int i = offset; i < end; i += SPECIES.length()) {
+      IntVector pixels = IntVector.fromArray(SPECIES, argb, i);
+      IntVector r = red(pixels);
+      IntVector g = green(pixels);
+      IntVector b = blue(pixels);
+      IntVector sum = r.add(g).add(b);
+      if (sum.eq(0).anyTrue()) {
+        return i;
+      }
+      pack(pixels, r.blend(0, r.eq(sum)), g.blend(0, g.eq(sum)), b.blend(0, b.eq(sum)))
+              .intoArray(argb, i);
+    }
+    return end;
+  }
+
+  /**
+   * Returns the red channels of a vector of packed ARGB values.
+   *
+   * @param pixels the packed ARGB values.
+   * @return IntVector the red channels.
+   */
+  private static IntVector red(IntVector pixels) {
+    return pixels.lanewise(VectorOperators.LSHR, 16).and(0xff);
+  }
+
+  /**
+   * Returns the green channels of a vector of packed ARGB values.
+   *
+   * @param pixels the packed ARGB values.
+   * @return IntVector the green channels.
+   */
+  private static IntVector green(IntVector pixels) {
+    return pixels.lanewise(VectorOperators.LSHR, 8).and(0xff);
+  }
+
+  /**
+   * Returns the blue channels of a vector of packed ARGB values.
+   *
+   * @param pixels the packed ARGB values.
+   * @return IntVector the blue channels.
+   */
+  private static IntVector blue(IntVector pixels) {
+    return pixels.and(0xff);
+  }
+
+  /**
+   * Returns the mean of three channels, rounded down like the scalar kernels' division by 3.
+   *
+   * @param r the red channels.
+   * @param g the green channels.
+   * @param b the blue channels.
+   * @return IntVector the means.
+   */
+  private static IntVector mean(IntVector r, IntVector g, IntVector b) {
+    return r.add(g).add(b).mul(THIRD).lanewise(VectorOperators.LSHR, 17);
+  }
+
+  /**
+   * Returns the value of three channels, breaking ties the way the scalar kernels do: red only
+   * when it is strictly the largest, then green only when it is strictly the largest, else blue.
+   *
+   * @param r the red channels.
+   * @param g the green channels.
+   * @param b the blue channels.
+   * @return IntVector the values.
+   */
+  private static IntVector value(IntVector r, IntVector g, IntVector b) {
+    VectorMask<Integer> redLargest = r.compare(VectorOperators.GT, g)
+            .and(r.compare(VectorOperators.GT, b));
+    VectorMask<Integer> greenLargest = g.compare(VectorOperators.GT, r)
+            .and(g.compare(VectorOperators.GT, b));
+    return b.blend(g, greenLargest).blend(r, redLargest);
+  }
+
+  /**
+   * Returns filtered channels packed with the alpha of the values they were filtered from.
+   *
+   * @param pixels the packed ARGB values.
+   * @param r      the filtered red channels.
+   * @param g      the filtered green channels.
+   * @param b      the filtered blue channels.
+   * @return IntVector the filtered packed ARGB values.
+   */
+  private static IntVector pack(IntVector pixels, IntVector r, IntVector g, IntVector b) {
+    return pixels.and(0xff000000).or(r.lanewise(VectorOperators.LSHL, 16))
+            .or(g.lanewise(VectorOperators.LSHL, 8)).or(b);
+  }
+}